@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.benchmarks;
+
+import java.rmi.UnexpectedException;
+
+import lombok.val;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The benchmarks entry point. It accepts the regular JMH command line options,
+ * but always adds the GC profiler (like {@code -prof gc}), so every run reports
+ * the allocation rate next to the throughput and latency.
+ *
+ * @author Artem Labazin
+ */
+public final class BenchmarkRunner {
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args JMH command line options.
+   *
+   * @throws CommandLineOptionException in case of invalid options.
+   * @throws RunnerException in case of benchmarks running errors.
+   */
+  public static void main (String[] args) throws CommandLineOptionException, RunnerException {
+    val options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    new Runner(options).run();
+  }
+
+  private BenchmarkRunner () throws UnexpectedException {
+    throw new UnexpectedException("It is not allowed to instantiate this class");
+  }
+}
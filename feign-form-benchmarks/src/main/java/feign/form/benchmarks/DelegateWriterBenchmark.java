@@ -0,0 +1,131 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.benchmarks;
+
+import static feign.codec.Encoder.MAP_STRING_WILDCARD;
+import static feign.form.benchmarks.Templates.MULTIPART;
+import static feign.form.benchmarks.Templates.template;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import feign.RequestTemplate;
+import feign.form.FormEncoder;
+import feign.form.multipart.DelegateWriter;
+import feign.form.multipart.StreamingEncoder;
+import feign.jackson.JacksonEncoder;
+
+/**
+ * The multipart values, which no writer supports, so they fall back
+ * to the {@link DelegateWriter} and the JSON encoder.
+ *
+ * @author Artem Labazin
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+public class DelegateWriterBenchmark {
+
+  @Param({ "1", "64" })
+  int entries;
+
+  /**
+   * The delegate encoder: Feign's Jackson encoder, which encodes into a temporary template,
+   * or the {@link StreamingEncoder}, which writes directly into the body.
+   */
+  @Param({ "template", "streaming" })
+  String delegate;
+
+  FormEncoder encoder;
+
+  Map<String, Object> object;
+
+  Map<String, Object> list;
+
+  @Setup
+  public void setup () {
+    encoder = "streaming".equals(delegate)
+              ? new FormEncoder(new JacksonStreamingEncoder())
+              : new FormEncoder(new JacksonEncoder());
+
+    val json = new LinkedHashMap<String, Object>();
+    val items = new ArrayList<Map<String, Object>>();
+    for (int index = 0; index < entries; index++) {
+      json.put("key" + index, "value #" + index);
+      items.add(singletonMap("id", index));
+    }
+    object = singletonMap("json", json);
+    list = singletonMap("json", items);
+  }
+
+  @Benchmark
+  public RequestTemplate object () {
+    return encode(object);
+  }
+
+  @Benchmark
+  public RequestTemplate list () {
+    return encode(list);
+  }
+
+  private RequestTemplate encode (Map<String, Object> data) {
+    val template = template(MULTIPART);
+    encoder.encode(data, MAP_STRING_WILDCARD, template);
+    return template;
+  }
+
+  static final class JacksonStreamingEncoder implements StreamingEncoder {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    @Override
+    public String getContentType () {
+      return "application/json";
+    }
+
+    @Override
+    public void encode (Object object, Type bodyType, Charset charset, OutputStream stream) throws IOException {
+      mapper.writeValue(stream, object);
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.benchmarks;
+
+import static feign.codec.Encoder.MAP_STRING_WILDCARD;
+import static feign.form.ContentType.MULTIPART;
+import static feign.form.benchmarks.Templates.randomBytes;
+import static feign.form.benchmarks.Templates.template;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import feign.Client;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.RequestTemplate;
+import feign.form.FormData;
+import feign.form.FormEncoder;
+import feign.form.MultipartFormContentProcessor;
+import feign.form.StreamingClient;
+
+/**
+ * {@link FormEncoder#encode} for the multipart bodies with small and large parts, the streaming
+ * bodies are also sent by {@link StreamingClient}.
+ *
+ * @author Artem Labazin
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+public class MultipartBenchmark {
+
+  private static final Options OPTIONS = new Options();
+
+  @Benchmark
+  public RequestTemplate bytes (Parts parts) {
+    return encode(parts.encoder, parts.bytes);
+  }
+
+  @Benchmark
+  public RequestTemplate file (Parts parts) {
+    return encode(parts.encoder, parts.files);
+  }
+
+  /**
+   * The streaming body is only bound to the template by the encoder, so it is sent too,
+   * to a connection, which discards the body.
+   */
+  @Benchmark
+  public int streamingFile (Parts parts) throws IOException {
+    val template = encode(parts.streamingEncoder, parts.files);
+    template.method(HttpMethod.POST);
+    template.target("http://localhost/upload");
+    val request = template.resolve(emptyMap()).request();
+    try (val response = parts.client.execute(request, OPTIONS)) {
+      return response.status();
+    }
+  }
+
+  @Benchmark
+  public RequestTemplate formData (Parts parts) {
+    return encode(parts.encoder, parts.formData);
+  }
+
+  @Benchmark
+  public RequestTemplate parameters (Parameters parameters) {
+    return encode(parameters.encoder, parameters.values);
+  }
+
+  private static RequestTemplate encode (FormEncoder encoder, Map<String, Object> data) {
+    val template = template(Templates.MULTIPART);
+    encoder.encode(data, MAP_STRING_WILDCARD, template);
+    return template;
+  }
+
+  /**
+   * The single part bodies of the different sizes.
+   */
+  @State(Scope.Benchmark)
+  public static class Parts {
+
+    @Param({ "1024", "4194304" })
+    int partSize;
+
+    FormEncoder encoder;
+
+    FormEncoder streamingEncoder;
+
+    StreamingClient client;
+
+    File file;
+
+    Map<String, Object> bytes;
+
+    Map<String, Object> files;
+
+    Map<String, Object> formData;
+
+    @Setup
+    public void setup () throws IOException {
+      encoder = new FormEncoder();
+      streamingEncoder = new FormEncoder();
+      ((MultipartFormContentProcessor) streamingEncoder.getContentProcessor(MULTIPART)).setStreaming(true);
+      client = new StreamingClient(new DiscardingClient());
+
+      val content = randomBytes(partSize);
+      file = File.createTempFile("feign-form-benchmark", ".bin");
+      Files.write(file.toPath(), content);
+
+      bytes = singletonMap("bytes", content);
+      files = singletonMap("file", file);
+      formData = singletonMap("formData", new FormData("application/octet-stream", "data.bin", content));
+    }
+
+    @TearDown
+    public void tearDown () throws IOException {
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  /**
+   * The body of the short text parameters, it doesn't depend on the part size.
+   */
+  @State(Scope.Benchmark)
+  public static class Parameters {
+
+    FormEncoder encoder;
+
+    Map<String, Object> values;
+
+    @Setup
+    public void setup () {
+      encoder = new FormEncoder();
+      values = new HashMap<>();
+      for (int index = 0; index < 16; index++) {
+        values.put("parameter" + index, "value #" + index);
+      }
+    }
+  }
+
+  /**
+   * The client, which connects to nowhere: its connections discard the request body
+   * and answer with an empty {@code 200 OK} response.
+   */
+  static class DiscardingClient extends Client.Default {
+
+    DiscardingClient () {
+      super(null, null);
+    }
+
+    @Override
+    public HttpURLConnection getConnection (URL url) {
+      return new DiscardingConnection(url);
+    }
+  }
+
+  static class DiscardingConnection extends HttpURLConnection {
+
+    DiscardingConnection (URL url) {
+      super(url);
+    }
+
+    @Override
+    public void connect () {
+      connected = true;
+    }
+
+    @Override
+    public void disconnect () {
+      connected = false;
+    }
+
+    @Override
+    public boolean usingProxy () {
+      return false;
+    }
+
+    @Override
+    public OutputStream getOutputStream () {
+      return new OutputStream() {
+
+        @Override
+        public void write (int value) {
+          // discarded
+        }
+
+        @Override
+        public void write (byte[] bytes, int offset, int length) {
+          // discarded
+        }
+      };
+    }
+
+    @Override
+    public int getResponseCode () {
+      return HTTP_OK;
+    }
+
+    @Override
+    public String getResponseMessage () {
+      return "OK";
+    }
+
+    @Override
+    public InputStream getInputStream () {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+  }
+}
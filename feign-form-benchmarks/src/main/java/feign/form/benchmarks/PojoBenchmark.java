@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.benchmarks;
+
+import static feign.form.benchmarks.Templates.URLENCODED;
+import static feign.form.benchmarks.Templates.template;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.Map;
+
+import lombok.Data;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import feign.RequestTemplate;
+import feign.form.FormEncoder;
+import feign.form.FormProperty;
+import feign.form.util.PojoUtil;
+
+/**
+ * The POJO flattening through {@link PojoUtil#toMap(Object)}.
+ *
+ * @author Artem Labazin
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+public class PojoBenchmark {
+
+  FormEncoder encoder;
+
+  Order order;
+
+  @Setup
+  public void setup () {
+    encoder = new FormEncoder();
+    order = new Order();
+    order.setId(42L);
+    order.setCustomer("Artem");
+    order.setAmount(12.5);
+    order.setPaid(true);
+    order.setComment("deliver after 6 pm");
+  }
+
+  @Benchmark
+  public Map<String, Object> toMap () {
+    return PojoUtil.toMap(order);
+  }
+
+  @Benchmark
+  public RequestTemplate encode () {
+    val template = template(URLENCODED);
+    encoder.encode(order, Order.class, template);
+    return template;
+  }
+
+  /**
+   * A flattened POJO.
+   */
+  @Data
+  public static class Order {
+
+    Long id;
+
+    @FormProperty("customer_name")
+    String customer;
+
+    Double amount;
+
+    Boolean paid;
+
+    String comment;
+  }
+}
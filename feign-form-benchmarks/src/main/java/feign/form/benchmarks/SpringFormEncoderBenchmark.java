@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.benchmarks;
+
+import static feign.codec.Encoder.MAP_STRING_WILDCARD;
+import static feign.form.benchmarks.Templates.MULTIPART;
+import static feign.form.benchmarks.Templates.randomBytes;
+import static feign.form.benchmarks.Templates.template;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.Map;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import feign.RequestTemplate;
+import feign.form.spring.SpringFormEncoder;
+
+/**
+ * {@link SpringFormEncoder} with the arrays of {@link MultipartFile}s.
+ *
+ * @author Artem Labazin
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+public class SpringFormEncoderBenchmark {
+
+  @Param({ "1", "16" })
+  int files;
+
+  @Param({ "1024", "1048576" })
+  int fileSize;
+
+  SpringFormEncoder encoder;
+
+  MultipartFile[] array;
+
+  Map<String, Object> field;
+
+  @Setup
+  public void setup () {
+    encoder = new SpringFormEncoder();
+    array = new MultipartFile[files];
+    for (int index = 0; index < files; index++) {
+      array[index] = new MockMultipartFile("file" + index, "file" + index + ".bin",
+                                           "application/octet-stream", randomBytes(fileSize));
+    }
+    field = singletonMap("files", array);
+  }
+
+  @Benchmark
+  public RequestTemplate arrayBody () {
+    val template = template(MULTIPART);
+    encoder.encode(array, MultipartFile[].class, template);
+    return template;
+  }
+
+  @Benchmark
+  public RequestTemplate arrayField () {
+    val template = template(MULTIPART);
+    encoder.encode(field, MAP_STRING_WILDCARD, template);
+    return template;
+  }
+}
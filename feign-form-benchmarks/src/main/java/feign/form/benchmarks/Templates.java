@@ -0,0 +1,52 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.benchmarks;
+
+import java.rmi.UnexpectedException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.val;
+
+import feign.RequestTemplate;
+
+/**
+ * Helpers for the benchmarks' fixtures.
+ *
+ * @author Artem Labazin
+ */
+final class Templates {
+
+  static final String URLENCODED = "application/x-www-form-urlencoded; charset=UTF-8";
+
+  static final String MULTIPART = "multipart/form-data";
+
+  static RequestTemplate template (String contentType) {
+    val template = new RequestTemplate();
+    template.header("Content-Type", contentType);
+    return template;
+  }
+
+  static byte[] randomBytes (int size) {
+    val bytes = new byte[size];
+    ThreadLocalRandom.current().nextBytes(bytes);
+    return bytes;
+  }
+
+  private Templates () throws UnexpectedException {
+    throw new UnexpectedException("It is not allowed to instantiate this class");
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.benchmarks;
+
+import static feign.codec.Encoder.MAP_STRING_WILDCARD;
+import static feign.form.benchmarks.Templates.URLENCODED;
+import static feign.form.benchmarks.Templates.template;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import feign.RequestTemplate;
+import feign.form.FormEncoder;
+
+/**
+ * {@link FormEncoder#encode} for the urlencoded bodies.
+ *
+ * @author Artem Labazin
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+public class UrlencodedBenchmark {
+
+  @Param({ "10", "100" })
+  int fields;
+
+  FormEncoder encoder;
+
+  Map<String, Object> strings;
+
+  Map<String, Object> numbers;
+
+  @Setup
+  public void setup () {
+    encoder = new FormEncoder();
+    strings = new HashMap<>();
+    numbers = new HashMap<>();
+    for (int index = 0; index < fields; index++) {
+      strings.put("field" + index, "value #" + index + " & ünïcode");
+      numbers.put("field" + index, new int[] { index, -index, index * 1000 });
+    }
+  }
+
+  @Benchmark
+  public RequestTemplate strings () {
+    val template = template(URLENCODED);
+    encoder.encode(strings, MAP_STRING_WILDCARD, template);
+    return template;
+  }
+
+  @Benchmark
+  public RequestTemplate primitiveArrays () {
+    val template = template(URLENCODED);
+    encoder.encode(numbers, MAP_STRING_WILDCARD, template);
+    return template;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.processor;
+
+import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.Diagnostic.Kind.WARNING;
+import static javax.tools.StandardLocation.CLASS_OUTPUT;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * An annotation processor, which generates a reflection-free {@code feign.form.FormMapper}
+ * for every class, annotated with {@code feign.form.GenerateFormMapper}, and registers
+ * the generated mappers as {@link java.util.ServiceLoader} services.
+ *
+ * @author Artem Labazin
+ */
+@SupportedAnnotationTypes(FormMapperProcessor.ANNOTATION)
+public class FormMapperProcessor extends AbstractProcessor {
+
+  static final String ANNOTATION = "feign.form.GenerateFormMapper";
+
+  private static final String SERVICES = "META-INF/services/feign.form.FormMapper";
+
+  private final Set<String> mappers = new TreeSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion () {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process (Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver()) {
+      writeServices();
+      return false;
+    }
+
+    TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+    if (annotation == null) {
+      return false;
+    }
+    for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+      if (element.getKind() != ElementKind.CLASS && !"RECORD".equals(element.getKind().name())) {
+        processingEnv.getMessager().printMessage(ERROR, "@GenerateFormMapper is applicable to classes only", element);
+        continue;
+      }
+      if (isPrivate(element)) {
+        processingEnv.getMessager().printMessage(ERROR, "@GenerateFormMapper is not applicable to private classes", element);
+        continue;
+      }
+      generate((TypeElement) element);
+    }
+    return true;
+  }
+
+  private void generate (TypeElement type) {
+    MapperSource source = MapperSource.of(processingEnv, type);
+    if (source.getInaccessibleField() != null) {
+      String message = String.format(
+          "Field '%s' is not accessible and has no public getter, the mapper is not generated",
+          source.getInaccessibleField()
+      );
+      processingEnv.getMessager().printMessage(WARNING, message, type);
+      return;
+    }
+
+    try (Writer writer = processingEnv.getFiler().createSourceFile(source.getQualifiedName(), type).openWriter()) {
+      writer.write(source.getCode());
+    } catch (IOException ex) {
+      processingEnv.getMessager().printMessage(ERROR, "Mapper writing error: " + ex.getMessage(), type);
+      return;
+    }
+    mappers.add(source.getQualifiedName());
+  }
+
+  private boolean isPrivate (Element element) {
+    for (Element current = element; current instanceof TypeElement; current = current.getEnclosingElement()) {
+      if (current.getModifiers().contains(Modifier.PRIVATE)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void writeServices () {
+    if (mappers.isEmpty()) {
+      return;
+    }
+    try (Writer writer = processingEnv.getFiler().createResource(CLASS_OUTPUT, "", SERVICES).openWriter()) {
+      for (String mapper : mappers) {
+        writer.write(mapper);
+        writer.write('\n');
+      }
+    } catch (IOException ex) {
+      processingEnv.getMessager().printMessage(ERROR, "Mappers registration writing error: " + ex.getMessage());
+    }
+  }
+}
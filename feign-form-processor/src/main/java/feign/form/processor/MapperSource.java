@@ -0,0 +1,185 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.processor;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+
+import feign.form.FormProperty;
+
+/**
+ * A source code of the generated mapper for a single POJO type.
+ *
+ * @author Artem Labazin
+ */
+final class MapperSource {
+
+  private static final String SUFFIX = "_FormMapper";
+
+  private final ProcessingEnvironment environment;
+
+  private final TypeElement type;
+
+  private final String packageName;
+
+  private final String simpleName;
+
+  private final Map<String, String> properties = new LinkedHashMap<>();
+
+  private String inaccessibleField;
+
+  private MapperSource (ProcessingEnvironment environment, TypeElement type) {
+    this.environment = environment;
+    this.type = type;
+    packageName = environment.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+
+    StringBuilder name = new StringBuilder(SUFFIX);
+    for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+      name.insert(0, element.getSimpleName()).insert(0, '_');
+    }
+    simpleName = name.substring(1);
+  }
+
+  static MapperSource of (ProcessingEnvironment environment, TypeElement type) {
+    MapperSource source = new MapperSource(environment, type);
+    boolean record = "RECORD".equals(type.getKind().name());
+    TypeElement current = type;
+    while (current != null && !current.getQualifiedName().toString().startsWith("java.")) {
+      for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+        if (field.getModifiers().contains(STATIC) || field.getModifiers().contains(FINAL) && !record) {
+          continue;
+        }
+        source.addProperty(current, field, record);
+      }
+      current = superclassOf(current);
+    }
+    return source;
+  }
+
+  private static TypeElement superclassOf (TypeElement type) {
+    if (type.getSuperclass().getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    return (TypeElement) ((DeclaredType) type.getSuperclass()).asElement();
+  }
+
+  String getQualifiedName () {
+    return packageName.isEmpty()
+           ? simpleName
+           : packageName + '.' + simpleName;
+  }
+
+  String getInaccessibleField () {
+    return inaccessibleField;
+  }
+
+  String getCode () {
+    String typeName = environment.getTypeUtils().erasure(type.asType()).toString();
+    StringBuilder code = new StringBuilder(1024);
+    if (!packageName.isEmpty()) {
+      code.append("package ").append(packageName).append(";\n\n");
+    }
+    code
+        .append("/**\n * Generated by feign-form-processor, do not edit.\n */\n")
+        .append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n")
+        .append("public final class ").append(simpleName)
+        .append(" implements feign.form.FormMapper<").append(typeName).append("> {\n\n")
+        .append("  @Override\n")
+        .append("  public Class<").append(typeName).append("> getType () {\n")
+        .append("    return ").append(typeName).append(".class;\n")
+        .append("  }\n\n")
+        .append("  @Override\n")
+        .append("  public java.util.Map<String, Object> toMap (").append(typeName).append(" object) {\n")
+        .append("    java.util.Map<String, Object> result = new java.util.HashMap<>(")
+        .append(properties.size() * 4 / 3 + 1).append(");\n")
+        .append("    Object value;\n");
+
+    for (Entry<String, String> entry : properties.entrySet()) {
+      code
+          .append("    value = object.").append(entry.getValue()).append(";\n")
+          .append("    if (value != null) {\n")
+          .append("      result.put(\"").append(escape(entry.getKey())).append("\", value);\n")
+          .append("    }\n");
+    }
+    return code
+        .append("    return result;\n")
+        .append("  }\n")
+        .append("}\n")
+        .toString();
+  }
+
+  private void addProperty (TypeElement owner, VariableElement field, boolean record) {
+    FormProperty formProperty = field.getAnnotation(FormProperty.class);
+    String name = formProperty != null
+                  ? formProperty.value()
+                  : field.getSimpleName().toString();
+    if (properties.containsKey(name)) {
+      return;
+    }
+
+    String accessor = findAccessor(owner, field, record);
+    if (accessor == null) {
+      inaccessibleField = owner.getQualifiedName() + "." + field.getSimpleName();
+      return;
+    }
+    properties.put(name, accessor);
+  }
+
+  private String findAccessor (TypeElement owner, VariableElement field, boolean record) {
+    String name = field.getSimpleName().toString();
+    String capitalized = name.substring(0, 1).toUpperCase(Locale.ENGLISH) + name.substring(1);
+    for (ExecutableElement method : ElementFilter.methodsIn(owner.getEnclosedElements())) {
+      String methodName = method.getSimpleName().toString();
+      boolean getter = record && methodName.equals(name) ||
+                       ("get" + capitalized).equals(methodName) ||
+                       field.asType().getKind() == TypeKind.BOOLEAN && ("is" + capitalized).equals(methodName);
+      if (getter && method.getParameters().isEmpty() &&
+          method.getModifiers().contains(PUBLIC) && !method.getModifiers().contains(STATIC) &&
+          environment.getTypeUtils().isSameType(method.getReturnType(), field.asType())) {
+        return methodName + "()";
+      }
+    }
+
+    PackageElement fieldPackage = environment.getElementUtils().getPackageOf(owner);
+    boolean visible = field.getModifiers().contains(PUBLIC) ||
+                      !field.getModifiers().contains(PRIVATE) &&
+                      fieldPackage.getQualifiedName().contentEquals(packageName);
+    return visible
+           ? name
+           : null;
+  }
+
+  private static String escape (String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import feign.form.FormMappers;
+import feign.form.util.PojoUtil;
+
+class FormMapperProcessorTest {
+
+  @Test
+  void registersGeneratedMapper () {
+    assertThat(FormMappers.find(Person.class))
+      .isInstanceOf(Person_FormMapper.class);
+  }
+
+  @Test
+  void mapsProperties () {
+    val person = new Person();
+    person.name = "Artem";
+    person.setAge(11);
+    person.active = true;
+
+    assertThat(PojoUtil.toMap(person))
+      .containsOnly(
+        entry("name", "Artem"),
+        entry("person_age", 11),
+        entry("active", true)
+      );
+  }
+
+  @Test
+  void skipsNullValues () {
+    val person = new Person();
+
+    assertThat(new Person_FormMapper().toMap(person))
+      .containsOnly(entry("active", false));
+  }
+}
@@ -49,6 +49,16 @@ public class SpringManyMultipartFilesWriter extends AbstractWriter {
     return iterator.hasNext() && iterator.next() instanceof MultipartFile;
   }
 
+  @Override
+  public boolean isCacheable (Class<?> type) {
+    return !Iterable.class.isAssignableFrom(type);
+  }
+
+  @Override
+  public boolean isSizeable (Object value) {
+    return true;
+  }
+
   @Override
   public void write (Output output, String boundary, String key, Object value) throws EncodeException {
     if (value instanceof MultipartFile[]) {
@@ -16,38 +16,98 @@
 
 package feign.form.spring;
 
+import java.io.File;
 import java.io.IOException;
 
 import lombok.val;
+import org.apache.commons.fileupload.disk.DiskFileItem;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.commons.CommonsMultipartFile;
 
 import feign.codec.EncodeException;
 import feign.form.multipart.AbstractWriter;
 import feign.form.multipart.Output;
 
 /**
- * A Spring single file writer.
+ * A Spring single file writer. The file's content is not loaded into the heap during encoding:
+ * the disk-backed files are referenced as files, the others are read from their streams,
+ * when the body is written.
+ * <p>
+ * The disk-backed files are the ones with a file resource (like the decoded parts) and the commons-fileupload
+ * ones, which are stored on disk. The standard servlet parts don't expose their location, so they are read
+ * from their streams; a file stream is still transferred with its channel, without copying through the heap.
  *
  * @author Artem Labazin
  */
 public class SpringSingleMultipartFileWriter extends AbstractWriter {
 
+  private static final boolean COMMONS_FILEUPLOAD_PRESENT =
+      ClassUtils.isPresent("org.apache.commons.fileupload.disk.DiskFileItem", null);
+
   @Override
   public boolean isApplicable (Object value) {
     return value instanceof MultipartFile;
   }
 
+  @Override
+  public boolean isCacheable (Class<?> type) {
+    return true;
+  }
+
+  @Override
+  public boolean isSizeable (Object value) {
+    return true;
+  }
+
   @Override
   protected void write (Output output, String key, Object value) throws EncodeException {
-    val file = (MultipartFile) value;
+    MultipartFile file = (MultipartFile) value;
     writeFileMetadata(output, key, file.getOriginalFilename(), file.getContentType());
 
-    byte[] bytes;
     try {
-      bytes = file.getBytes();
+      File stored = storedFile(file);
+      if (stored == null) {
+        output.write(file::getInputStream, file.getSize());
+      } else {
+        output.write(stored);
+      }
     } catch (IOException ex) {
-      throw new EncodeException("Getting multipart file's content bytes error", ex);
+      throw new EncodeException("Getting multipart file's content error", ex);
+    }
+  }
+
+  /**
+   * Returns the file, which holds the whole content of the disk-backed multipart file.
+   */
+  private static File storedFile (MultipartFile file) throws IOException {
+    if (COMMONS_FILEUPLOAD_PRESENT && CommonsFiles.isCommons(file)) {
+      return CommonsFiles.storeLocation(file);
+    }
+    val resource = file.getResource();
+    return resource.isFile()
+           ? resource.getFile()
+           : null;
+  }
+
+  /**
+   * The access to the optional commons-fileupload classes, it is loaded only if they are present.
+   */
+  private static final class CommonsFiles {
+
+    static boolean isCommons (MultipartFile file) {
+      return file instanceof CommonsMultipartFile;
+    }
+
+    static File storeLocation (MultipartFile file) {
+      val item = ((CommonsMultipartFile) file).getFileItem();
+      if (!(item instanceof DiskFileItem) || item.isInMemory()) {
+        return null;
+      }
+      val location = ((DiskFileItem) item).getStoreLocation();
+      return location != null && location.length() == file.getSize()
+             ? location
+             : null;
     }
-    output.write(bytes);
   }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.spring.converter;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.multipart.MultipartFile;
+
+import feign.form.util.ResourceReaper;
+
+/**
+ * Implementation of interface {@link MultipartFile} where the file data is held in a temporary file.
+ * <p>
+ * The temporary file is deleted on {@link #close()}. The files, which were not closed explicitly,
+ * are deleted by the {@link ResourceReaper}, when their parts are garbage collected.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class FileMultipartFile implements MultipartFile, Closeable {
+
+  @Getter
+  String name;
+
+  @Getter
+  String originalFilename;
+
+  @Getter
+  String contentType;
+
+  Path path;
+
+  long size;
+
+  ResourceReaper.Registration registration;
+
+  FileMultipartFile (String name, String originalFilename, String contentType, Path path, long size) {
+    this.name = name;
+    this.originalFilename = originalFilename;
+    this.contentType = contentType;
+    this.path = path;
+    this.size = size;
+    registration = ResourceReaper.register(this, deletion(path));
+  }
+
+  @Override
+  public boolean isEmpty () {
+    return size == 0;
+  }
+
+  @Override
+  public long getSize () {
+    return size;
+  }
+
+  @Override
+  public byte[] getBytes () throws IOException {
+    return Files.readAllBytes(path);
+  }
+
+  @Override
+  public InputStream getInputStream () throws IOException {
+    return Files.newInputStream(path);
+  }
+
+  @Override
+  public Resource getResource () {
+    return new FileSystemResource(path);
+  }
+
+  @Override
+  public void transferTo (File destination) throws IOException {
+    transferTo(destination.toPath());
+  }
+
+  @Override
+  public void transferTo (Path destination) throws IOException {
+    try (val source = FileChannel.open(path, READ);
+         val target = FileChannel.open(destination, WRITE, CREATE, TRUNCATE_EXISTING)) {
+      long position = 0;
+      while (position < size) {
+        val transferred = source.transferTo(position, size - position, target);
+        if (transferred <= 0) {
+          throw new EOFException("Unexpected end of file: " + path);
+        }
+        position += transferred;
+      }
+    }
+  }
+
+  /**
+   * Deletes the temporary file, the part's content is not available after that.
+   *
+   * @throws IOException in case of the deletion error.
+   */
+  @Override
+  public void close () throws IOException {
+    registration.close();
+  }
+
+  private static Closeable deletion (Path path) {
+    // the deletion must not reference the part, to let it be garbage collected
+    return () -> Files.deleteIfExists(path);
+  }
+}
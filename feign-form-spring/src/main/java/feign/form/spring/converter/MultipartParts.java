@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.spring.converter;
+
+import static lombok.AccessLevel.PACKAGE;
+import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import feign.form.multipart.MultipartParser;
+
+/**
+ * The lazily read parts of a multipart response (see {@link SpringMultipartPartsReader}).
+ * <p>
+ * Every part is parsed only when it is requested, and its body is read directly from
+ * the response's stream, so the memory doesn't depend on the number and the size of the parts.
+ * The parts can be iterated only once, the unread rest of a part is skipped, when the next one is requested.
+ * Closing closes the response's stream.
+ *
+ * @author Artem Labazin
+ */
+@RequiredArgsConstructor(access = PACKAGE)
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class MultipartParts implements Iterator<StreamedPart>, Closeable {
+
+  MultipartParser parser;
+
+  @NonFinal
+  boolean advanced;
+
+  @NonFinal
+  boolean available;
+
+  @Override
+  public boolean hasNext () {
+    if (!advanced) {
+      try {
+        available = parser.nextPart();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+      advanced = true;
+    }
+    return available;
+  }
+
+  @Override
+  public StreamedPart next () {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    advanced = false;
+
+    val partHeaders = parser.getHeaders();
+    val headers = new HttpHeaders();
+    for (int index = 0; index < partHeaders.size(); index++) {
+      headers.add(partHeaders.getName(index), partHeaders.getValue(index));
+    }
+    val disposition = partHeaders.get(CONTENT_DISPOSITION);
+    val contentDisposition = disposition == null
+                             ? ContentDisposition.empty()
+                             : ContentDisposition.parse(disposition);
+    return new StreamedPart(
+        contentDisposition.getName(),
+        contentDisposition.getFilename(),
+        partHeaders.get(CONTENT_TYPE),
+        headers,
+        parser.getBodyStream()
+    );
+  }
+
+  @Override
+  public void close () throws IOException {
+    parser.close();
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.spring.converter;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.springframework.web.multipart.MultipartFile;
+
+import feign.form.util.ByteArrayBuilder;
+
+/**
+ * A part's body stream, which keeps the body in memory up to the threshold,
+ * and writes the larger bodies to a temporary file.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class PartBodyStream extends OutputStream {
+
+  int threshold;
+
+  ByteArrayBuilder memory = new ByteArrayBuilder();
+
+  @NonFinal
+  Path path;
+
+  @NonFinal
+  FileChannel channel;
+
+  @NonFinal
+  long size;
+
+  PartBodyStream (int threshold) {
+    super();
+    this.threshold = threshold;
+  }
+
+  @Override
+  public void write (int value) throws IOException {
+    write(new byte[] { (byte) value }, 0, 1);
+  }
+
+  @Override
+  public void write (byte[] bytes, int offset, int length) throws IOException {
+    size += length;
+    if (channel == null && size <= threshold) {
+      memory.append(bytes, offset, length);
+      return;
+    }
+    if (channel == null) {
+      spill();
+    }
+    writeFully(ByteBuffer.wrap(bytes, offset, length));
+  }
+
+  /**
+   * Creates the part with the written body, the stream must not be used after that.
+   *
+   * @param name             the part's name.
+   * @param originalFilename the part's file name.
+   * @param contentType      the part's content type.
+   *
+   * @return the part, which holds the body in memory, or in the temporary file.
+   *
+   * @throws IOException in case of the temporary file closing error.
+   */
+  MultipartFile toMultipartFile (String name, String originalFilename, String contentType) throws IOException {
+    if (channel == null) {
+      return new ByteArrayMultipartFile(name, originalFilename, contentType, memory.toByteArray());
+    }
+    channel.close();
+    return new FileMultipartFile(name, originalFilename, contentType, path, size);
+  }
+
+  /**
+   * Deletes the temporary file, if the body was not read completely.
+   *
+   * @throws IOException in case of the deletion error.
+   */
+  void discard () throws IOException {
+    if (channel == null) {
+      return;
+    }
+    channel.close();
+    Files.deleteIfExists(path);
+  }
+
+  private void spill () throws IOException {
+    path = Files.createTempFile("feign-form-", ".part");
+    channel = FileChannel.open(path, WRITE);
+    writeFully(memory.toByteBuffer());
+    memory.release();
+  }
+
+  private void writeFully (ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
@@ -18,19 +18,16 @@ package feign.form.spring.converter;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static lombok.AccessLevel.PRIVATE;
-import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
-import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
 
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.channels.Channels;
 import java.util.LinkedList;
-import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.List;
 
 import lombok.experimental.FieldDefaults;
 import lombok.val;
-import org.apache.commons.fileupload.MultipartStream;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
@@ -42,35 +39,46 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import feign.form.multipart.MultipartParser;
+
 /**
  * Implementation of {@link HttpMessageConverter} that can read multipart/form-data HTTP bodies
  * (writing is not handled because that is already supported by {@link FormHttpMessageConverter}).
  * <p>
  * This reader supports an array of {@link MultipartFile} as the mapping return class type - each
  * multipart body is read into an underlying byte array (in memory) implemented via
- * {@link ByteArrayMultipartFile}.
+ * {@link ByteArrayMultipartFile}. The bodies, which are larger than the in-memory threshold, are written
+ * to temporary files, such parts implement {@link java.io.Closeable}, closing deletes the file
+ * (the files of the unclosed parts are deleted, when the parts are garbage collected).
  */
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 public class SpringManyMultipartFilesReader extends AbstractHttpMessageConverter<MultipartFile[]> {
 
-  private static final Pattern NEWLINES_PATTERN = Pattern.compile("\\R");
-
-  private static final Pattern COLON_PATTERN = Pattern.compile(":");
-
-  private static final Pattern SEMICOLON_PATTERN = Pattern.compile(";");
-
-  private static final Pattern EQUALITY_SIGN_PATTERN = Pattern.compile("=");
-
   int bufSize;
 
+  int inMemoryThreshold;
+
   /**
    * Construct an {@code AbstractHttpMessageConverter} that can read mulitpart/form-data.
+   * All parts are held in memory.
    *
    * @param bufSize The size of the buffer (in bytes) to read the HTTP multipart body.
    */
   public SpringManyMultipartFilesReader (int bufSize) {
+    this(bufSize, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Construct an {@code AbstractHttpMessageConverter} that can read mulitpart/form-data.
+   *
+   * @param bufSize           The size of the buffer (in bytes) to read the HTTP multipart body.
+   * @param inMemoryThreshold The maximum size (in bytes) of the part's body, which is held in memory,
+   *                          the larger bodies are written to temporary files.
+   */
+  public SpringManyMultipartFilesReader (int bufSize, int inMemoryThreshold) {
     super(MULTIPART_FORM_DATA);
     this.bufSize = bufSize;
+    this.inMemoryThreshold = inMemoryThreshold;
   }
 
   @Override
@@ -97,19 +105,26 @@ public class SpringManyMultipartFilesReader extends AbstractHttpMessageConverter
     }
 
     val boundaryBytes = getMultiPartBoundary(contentType);
-    MultipartStream multipartStream = new MultipartStream(inputMessage.getBody(), boundaryBytes, bufSize, null);
-
-    val multiparts = new LinkedList<ByteArrayMultipartFile>();
-    for (boolean nextPart = multipartStream.skipPreamble(); nextPart; nextPart = multipartStream.readBoundary()) {
-      ByteArrayMultipartFile multiPart;
-      try {
-        multiPart = readMultiPart(multipartStream);
-      } catch (Exception e) {
-        throw new HttpMessageNotReadableException("Multipart body could not be read.", e, inputMessage);
+    List<MultipartFile> multiparts = new LinkedList<>();
+    boolean completed = false;
+    try (MultipartParser parser = new MultipartParser(
+        Channels.newChannel(inputMessage.getBody()), boundaryBytes, bufSize, UTF_8)) {
+      while (parser.nextPart()) {
+        MultipartFile multiPart;
+        try {
+          multiPart = readMultiPart(parser);
+        } catch (Exception e) {
+          throw new HttpMessageNotReadableException("Multipart body could not be read.", e, inputMessage);
+        }
+        multiparts.add(multiPart);
+      }
+      completed = true;
+    } finally {
+      if (!completed) {
+        close(multiparts);
       }
-      multiparts.add(multiPart);
     }
-    return multiparts.toArray(new ByteArrayMultipartFile[0]);
+    return multiparts.toArray(new MultipartFile[0]);
   }
 
   @Override
@@ -125,54 +140,33 @@ public class SpringManyMultipartFilesReader extends AbstractHttpMessageConverter
     return boundaryString.getBytes(UTF_8);
   }
 
-  private ByteArrayMultipartFile readMultiPart (MultipartStream multipartStream) throws IOException {
-    val multiPartHeaders = splitIntoKeyValuePairs(
-        multipartStream.readHeaders(),
-        NEWLINES_PATTERN,
-        COLON_PATTERN,
-        false
-    );
-
-    val contentDisposition = splitIntoKeyValuePairs(
-        multiPartHeaders.get(CONTENT_DISPOSITION),
-        SEMICOLON_PATTERN,
-        EQUALITY_SIGN_PATTERN,
-        true
-    );
-
-    if (!contentDisposition.containsKey("form-data")) {
+  @SuppressWarnings("PMD.CloseResource") // the body is moved to the part
+  private MultipartFile readMultiPart (MultipartParser parser) throws IOException {
+    val descriptor = parser.getDescriptor();
+    if (!descriptor.isFormData()) {
       throw new HttpMessageConversionException("Content-Disposition is not of type form-data.");
     }
 
-    val bodyStream = new ByteArrayOutputStream();
-    multipartStream.readBodyData(bodyStream);
-    return new ByteArrayMultipartFile(
-        contentDisposition.get("name"),
-        contentDisposition.get("filename"),
-        multiPartHeaders.get(CONTENT_TYPE),
-        bodyStream.toByteArray()
+    val bodyStream = new PartBodyStream(inMemoryThreshold);
+    try {
+      parser.transferTo(bodyStream);
+    } catch (IOException | RuntimeException ex) {
+      bodyStream.discard();
+      throw ex;
+    }
+    return bodyStream.toMultipartFile(
+        descriptor.getName(),
+        descriptor.getFilename(),
+        descriptor.getContentType()
     );
   }
 
-  private Map<String, String> splitIntoKeyValuePairs (String str, Pattern entriesSeparatorPattern,
-                                                      Pattern keyValueSeparatorPattern, boolean unquoteValue
-  ) {
-    val keyValuePairs = new IgnoreKeyCaseMap();
-    if (StringUtils.hasLength(str)) {
-      val tokens = entriesSeparatorPattern.split(str);
-      for (val token : tokens) {
-        val pair = keyValueSeparatorPattern.split(token.trim(), 2);
-        val key = pair[0].trim();
-        val value = pair.length > 1
-                    ? pair[1].trim()
-                    : "";
-
-        keyValuePairs.put(key, unquoteValue
-                               ? unquote(value)
-                               : value);
+  private void close (Iterable<MultipartFile> multiparts) throws IOException {
+    for (val multipart : multiparts) {
+      if (multipart instanceof Closeable) {
+        ((Closeable) multipart).close();
       }
     }
-    return keyValuePairs;
   }
 
   private String unquote (String value) {
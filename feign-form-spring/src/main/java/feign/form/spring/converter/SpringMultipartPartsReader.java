@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.spring.converter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
+import static org.springframework.http.MediaType.MULTIPART_MIXED;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import lombok.val;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StringUtils;
+
+import feign.form.multipart.MultipartParser;
+
+/**
+ * Implementation of {@link HttpMessageConverter} that reads multipart HTTP bodies lazily,
+ * as {@link MultipartParts}. Unlike {@link SpringManyMultipartFilesReader} it doesn't read
+ * the whole body before returning, so the caller gets the first part as soon as it arrives.
+ * <p>
+ * The parts are read from the response's stream after decoding, so the Feign client must be built
+ * with {@code doNotCloseAfterDecode()}, and the caller must close the returned {@link MultipartParts}.
+ *
+ * @author Artem Labazin
+ */
+public class SpringMultipartPartsReader extends AbstractHttpMessageConverter<MultipartParts> {
+
+  private static final int BUFFER_SIZE = 16 * 1024;
+
+  /**
+   * Constructor.
+   */
+  public SpringMultipartPartsReader () {
+    super(MULTIPART_FORM_DATA, MULTIPART_MIXED);
+  }
+
+  @Override
+  protected boolean canWrite (MediaType mediaType) {
+    return false; // Class NOT meant for writing multipart HTTP bodies
+  }
+
+  @Override
+  protected boolean supports (Class<?> clazz) {
+    return MultipartParts.class == clazz;
+  }
+
+  @Override
+  protected MultipartParts readInternal (Class<? extends MultipartParts> clazz, HttpInputMessage inputMessage
+  ) throws IOException {
+    val contentType = inputMessage.getHeaders().getContentType();
+    if (contentType == null) {
+      throw new HttpMessageNotReadableException("Content-Type is missing.", inputMessage);
+    }
+
+    String boundary = contentType.getParameter("boundary");
+    if (!StringUtils.hasLength(boundary)) {
+      throw new HttpMessageNotReadableException("Content-Type missing boundary information.", inputMessage);
+    }
+    val charset = contentType.getCharset();
+    val parser = new MultipartParser(
+        Channels.newChannel(inputMessage.getBody()),
+        unquote(boundary).getBytes(UTF_8),
+        BUFFER_SIZE,
+        charset == null ? UTF_8 : charset
+    );
+    return new MultipartParts(parser);
+  }
+
+  @Override
+  protected void writeInternal (MultipartParts parts, HttpOutputMessage outputMessage) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support writing to HTTP body.");
+  }
+
+  private static String unquote (String value) {
+    return value.length() > 1 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"'
+           ? value.substring(1, value.length() - 1)
+           : value;
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.spring.converter;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.InputStream;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * A part of the multipart response, which is read lazily by {@link MultipartParts}.
+ * <p>
+ * The part's body is not buffered, its stream reads directly from the response,
+ * so it is available only until the next part is requested.
+ *
+ * @author Artem Labazin
+ */
+@Getter
+@RequiredArgsConstructor
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class StreamedPart {
+
+  /**
+   * The part's name from the {@code Content-Disposition} header.
+   */
+  String name;
+
+  /**
+   * The part's file name from the {@code Content-Disposition} header, may be {@code null}.
+   */
+  String originalFilename;
+
+  /**
+   * The part's content type, may be {@code null}.
+   */
+  String contentType;
+
+  /**
+   * All headers of the part.
+   */
+  MultiValueMap<String, String> headers;
+
+  /**
+   * The part's body stream, it is valid until the next part is requested.
+   */
+  InputStream inputStream;
+}
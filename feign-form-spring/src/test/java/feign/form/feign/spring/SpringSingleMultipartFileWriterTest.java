@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.feign.spring;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import lombok.SneakyThrows;
+import lombok.val;
+import org.apache.commons.fileupload.disk.DiskFileItem;
+import org.apache.commons.fileupload.disk.DiskFileItemFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockPart;
+import org.springframework.web.multipart.commons.CommonsMultipartFile;
+import org.springframework.web.multipart.support.StandardMultipartHttpServletRequest;
+
+import feign.form.multipart.Output;
+import feign.form.spring.SpringSingleMultipartFileWriter;
+
+class SpringSingleMultipartFileWriterTest {
+
+  private static final byte[] CONTENT = "disk-backed content".getBytes(UTF_8);
+
+  @TempDir
+  Path folder;
+
+  @Test
+  @SneakyThrows
+  void standardMultipartFileIsTransferredWithItsChannel () {
+    val stored = Files.write(folder.resolve("upload.tmp"), CONTENT).toFile();
+    val request = new MockHttpServletRequest("POST", "/upload");
+    request.setContentType("multipart/form-data; boundary=part");
+    request.addPart(new DiskPart(stored));
+    val file = new StandardMultipartHttpServletRequest(request).getFile("file");
+    assertThat(file.getResource().isFile())
+      .isFalse();
+
+    val output = new Output(UTF_8, true);
+    new SpringSingleMultipartFileWriter().write(output, "part", "file", file);
+
+    // the stream's reading methods fail, so the content can be sent only by its channel
+    val body = new ByteArrayOutputStream();
+    output.writeTo(body);
+    assertThat(body.toString("UTF-8"))
+      .contains("filename=\"upload.txt\"")
+      .contains("disk-backed content");
+  }
+
+  @Test
+  @SneakyThrows
+  void commonsMultipartFileIsReferencedAsFile () {
+    val item = (DiskFileItem) new DiskFileItemFactory(0, folder.toFile())
+        .createItem("file", "text/plain", false, "upload.txt");
+    try (val stream = item.getOutputStream()) {
+      stream.write(CONTENT);
+    }
+    val file = new CommonsMultipartFile(item);
+    assertThat(item.isInMemory())
+      .isFalse();
+
+    val output = new RecordingOutput();
+    new SpringSingleMultipartFileWriter().write(output, "part", "file", file);
+
+    assertThat(output.written)
+      .isEqualTo(item.getStoreLocation());
+    assertThat(output.toByteArray())
+      .asString(UTF_8)
+      .contains("disk-backed content");
+    item.delete();
+  }
+
+  private static final class DiskPart extends MockPart {
+
+    private final File stored;
+
+    DiskPart (File stored) {
+      super("file", "upload.txt", CONTENT);
+      this.stored = stored;
+    }
+
+    @Override
+    public InputStream getInputStream () throws IOException {
+      return new FileInputStream(stored) {
+
+        @Override
+        public int read () {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read (byte[] bytes, int offset, int length) {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
+
+  private static final class RecordingOutput extends Output {
+
+    private File written;
+
+    RecordingOutput () {
+      super(UTF_8);
+    }
+
+    @Override
+    public Output write (File file) throws IOException {
+      written = file;
+      return super.write(file);
+    }
+  }
+}
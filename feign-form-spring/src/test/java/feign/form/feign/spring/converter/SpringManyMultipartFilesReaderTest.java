@@ -16,14 +16,18 @@
 
 package feign.form.feign.spring.converter;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 
 import lombok.val;
 import org.apache.commons.io.IOUtils;
@@ -62,6 +66,62 @@ class SpringManyMultipartFilesReaderTest {
       .isEqualTo("Plain text");
   }
 
+  @Test
+  void readLargePartsToTemporaryFilesTest () throws IOException {
+    val multipartFilesReader = new SpringManyMultipartFilesReader(4096, 8);
+    val multipartFiles = multipartFilesReader.read(MultipartFile[].class, new ValidMultipartMessage());
+
+    assertThat(multipartFiles[0])
+      .isNotInstanceOf(Closeable.class);
+    assertThat(multipartFiles[0].getBytes())
+      .asString(US_ASCII)
+      .isEqualTo("{\"id\":1}");
+
+    val largePart = multipartFiles[1];
+    assertThat(largePart)
+      .isInstanceOf(Closeable.class);
+    assertThat(largePart.getSize())
+      .isEqualTo(10);
+    assertThat(largePart.getBytes())
+      .asString(US_ASCII)
+      .isEqualTo("Plain text");
+
+    val file = largePart.getResource().getFile();
+    assertThat(file)
+      .exists();
+
+    val copy = File.createTempFile("feign-form", ".txt");
+    try {
+      largePart.transferTo(copy);
+      assertThat(copy)
+        .hasContent("Plain text");
+    } finally {
+      Files.deleteIfExists(copy.toPath());
+    }
+
+    ((Closeable) largePart).close();
+    assertThat(file)
+      .doesNotExist();
+  }
+
+  @Test
+  void deleteTemporaryFilesOfAbandonedPartsTest () throws Exception {
+    val multipartFilesReader = new SpringManyMultipartFilesReader(4096, 8);
+    val file = multipartFilesReader.read(MultipartFile[].class, new ValidMultipartMessage())[1]
+        .getResource()
+        .getFile();
+    assertThat(file)
+      .exists();
+
+    // the part is dropped without closing
+    for (int attempt = 0; attempt < 100 && file.exists(); attempt++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    assertThat(file)
+      .doesNotExist();
+  }
+
   static class ValidMultipartMessage implements HttpInputMessage {
 
     @Override
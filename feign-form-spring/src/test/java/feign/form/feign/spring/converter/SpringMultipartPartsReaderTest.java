@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.feign.spring.converter;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+import lombok.val;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+
+import feign.form.spring.converter.MultipartParts;
+import feign.form.spring.converter.SpringMultipartPartsReader;
+
+class SpringMultipartPartsReaderTest {
+
+  private static final String BOUNDARY = "Boundary_4_574237629_1500021738802";
+
+  @Test
+  void readPartsLazily () throws IOException {
+    val reader = new SpringMultipartPartsReader();
+
+    try (val parts = reader.read(MultipartParts.class, new UnfinishedMessage())) {
+      assertThat(parts.hasNext())
+        .isTrue();
+
+      val first = parts.next();
+      assertThat(first.getName())
+        .isEqualTo("form-item-1");
+      assertThat(first.getContentType())
+        .isEqualTo("application/json");
+      assertThat(first.getHeaders().getFirst("content-type"))
+        .isEqualTo("application/json");
+      assertThat(IOUtils.toString(first.getInputStream(), US_ASCII))
+        .isEqualTo("{\"id\":1}");
+
+      val second = parts.next();
+      assertThat(second.getOriginalFilename())
+        .isEqualTo("form-item-2-file-1");
+      assertThatThrownBy(() -> IOUtils.toString(second.getInputStream(), US_ASCII))
+        .isInstanceOf(IOException.class)
+        .hasStackTraceContaining("the rest of the body has not arrived");
+    }
+  }
+
+  static class UnfinishedMessage implements HttpInputMessage {
+
+    @Override
+    public InputStream getBody () {
+      val arrived = "--" + BOUNDARY + "\r\n" +
+                    "Content-Type: application/json\r\n" +
+                    "Content-Disposition: form-data; name=\"form-item-1\"\r\n" +
+                    "\r\n" +
+                    "{\"id\":1}" + "\r\n" +
+                    "--" + BOUNDARY + "\r\n" +
+                    "content-type: text/plain\r\n" +
+                    "content-disposition: form-data; filename=\"form-item-2-file-1\"; name=\"form-item-2\"\r\n" +
+                    "\r\n" +
+                    "Plain";
+
+      val notArrived = new InputStream() {
+
+        @Override
+        public int read () throws IOException {
+          throw new IOException("the rest of the body has not arrived");
+        }
+      };
+      return new SequenceInputStream(new ByteArrayInputStream(arrived.getBytes(US_ASCII)), notArrived);
+    }
+
+    @Override
+    public HttpHeaders getHeaders () {
+      val httpHeaders = new HttpHeaders();
+      httpHeaders.put(CONTENT_TYPE, singletonList(MULTIPART_FORM_DATA_VALUE + "; boundary=" + BOUNDARY));
+      return httpHeaders;
+    }
+  }
+}
@@ -47,12 +47,32 @@ public interface ContentProcessor {
    *
    * @param template  Feign's request template.
    * @param charset   request charset from 'Content-Type' header (UTF-8 by default).
-   * @param data      reqeust data.
+   * @param data      request data.
    *
    * @throws EncodeException in case of any encode exception
    */
   void process (RequestTemplate template, Charset charset, Map<String, Object> data) throws EncodeException;
 
+  /**
+   * Processes a request with a hint of the expected encode buffer size. The default implementation
+   * ignores the hint and calls {@link #process(RequestTemplate, Charset, Map)}. The built-in processors
+   * presize their buffers by the hint, unless their subclass overrides the plain method - then
+   * the plain method is called, as for the custom processors.
+   *
+   * @param template       Feign's request template.
+   * @param charset        request charset from 'Content-Type' header (UTF-8 by default).
+   * @param data           request data.
+   * @param bufferSizeHint the expected encode buffer size, or a negative value if it is unknown.
+   *
+   * @return the actual number of bytes, which were buffered during encoding, or a negative value if it is unknown.
+   *
+   * @throws EncodeException in case of any encode exception
+   */
+  default int process (RequestTemplate template, Charset charset, Map<String, Object> data, int bufferSizeHint) throws EncodeException {
+    process(template, charset, data);
+    return -1;
+  }
+
   /**
    * Returns supported {@link ContentType} of this processor.
    *
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+import feign.RequestTemplate;
+import feign.Target;
+import feign.form.util.SizeHistogram;
+
+/**
+ * The learned encode buffer sizes per endpoint: Feign's method key and the target URL.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class EndpointSizes {
+
+  ConcurrentMap<String, ConcurrentMap<String, SizeHistogram>> histograms = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the histogram of the template's endpoint.
+   *
+   * @param template Feign's request template.
+   *
+   * @return the endpoint's histogram, or {@code null} if the template doesn't belong to a Feign method.
+   */
+  SizeHistogram histogram (RequestTemplate template) {
+    val metadata = template.methodMetadata();
+    if (metadata == null || metadata.configKey() == null) {
+      return null;
+    }
+    val target = template.feignTarget();
+    // the empty targets throw on url(), their URLs are passed as the method's arguments
+    val url = target == null || target instanceof Target.EmptyTarget || target.url() == null
+              ? ""
+              : target.url();
+
+    return histograms
+        .computeIfAbsent(metadata.configKey(), key -> new ConcurrentHashMap<>())
+        .computeIfAbsent(url, key -> new SizeHistogram());
+  }
+
+  /**
+   * Returns the current predictions.
+   *
+   * @return the predicted sizes by "{@code <method key> <target URL>}" keys.
+   */
+  Map<String, Integer> snapshot () {
+    val result = new TreeMap<String, Integer>();
+    histograms.forEach((method, targets) -> targets.forEach((url, histogram) -> {
+      val size = histogram.predict();
+      if (size >= 0) {
+        result.put(method + ' ' + url, size);
+      }
+    }));
+    return result;
+  }
+}
@@ -27,8 +27,10 @@ import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
+import lombok.Value;
 import lombok.experimental.FieldDefaults;
 import lombok.val;
 
@@ -48,6 +50,10 @@ public class FormEncoder implements Encoder {
 
   private static final Pattern CHARSET_PATTERN;
 
+  private static final int MAX_CACHED_CONTENT_TYPES = 256;
+
+  private static final ResolvedContentType NOT_FORM = new ResolvedContentType(null, null);
+
   static {
     CONTENT_TYPE_HEADER = "Content-Type";
     CHARSET_PATTERN = Pattern.compile("(?<=charset=)([\\w\\-]+)");
@@ -57,6 +63,10 @@ public class FormEncoder implements Encoder {
 
   Map<ContentType, ContentProcessor> processors;
 
+  Map<String, ResolvedContentType> resolvedContentTypes = new ConcurrentHashMap<>();
+
+  EndpointSizes endpointSizes = new EndpointSizes();
+
   /**
    * Constructor with the default Feign's encoder as a delegate.
    */
@@ -86,9 +96,8 @@ public class FormEncoder implements Encoder {
   @Override
   @SuppressWarnings("unchecked")
   public void encode (Object object, Type bodyType, RequestTemplate template) throws EncodeException {
-    String contentTypeValue = getContentTypeValue(template.headers());
-    val contentType = ContentType.of(contentTypeValue);
-    if (processors.containsKey(contentType) == false) {
+    val contentType = resolve(getContentTypeValue(template.headers()));
+    if (contentType.getProcessor() == null) {
       delegate.encode(object, bodyType, template);
       return;
     }
@@ -103,8 +112,25 @@ public class FormEncoder implements Encoder {
       return;
     }
 
-    val charset = getCharset(contentTypeValue);
-    processors.get(contentType).process(template, charset, data);
+    val histogram = endpointSizes.histogram(template);
+    val hint = histogram == null
+               ? -1
+               : histogram.predict();
+
+    val buffered = contentType.getProcessor().process(template, contentType.getCharset(), data, hint);
+    if (histogram != null) {
+      histogram.record(buffered);
+    }
+  }
+
+  /**
+   * Returns the encode buffer sizes, which were learned per endpoint. Every next request to
+   * an endpoint gets its encode buffer presized to the learned size.
+   *
+   * @return the learned sizes by "{@code <method key> <target URL>}" keys.
+   */
+  public final Map<String, Integer> getLearnedBufferSizes () {
+    return endpointSizes.snapshot();
   }
 
   /**
@@ -134,10 +160,43 @@ public class FormEncoder implements Encoder {
     return null;
   }
 
+  /**
+   * Resolves the Content-Type header value to its processor and charset. The resolved
+   * values are cached by the raw header value, so the same values are parsed only once.
+   */
+  private ResolvedContentType resolve (String contentTypeValue) {
+    if (contentTypeValue == null) {
+      return NOT_FORM;
+    }
+    val cached = resolvedContentTypes.get(contentTypeValue);
+    if (cached != null) {
+      return cached;
+    }
+    val processor = processors.get(ContentType.of(contentTypeValue));
+    val result = processor == null
+                 ? NOT_FORM
+                 : new ResolvedContentType(processor, getCharset(contentTypeValue));
+    if (resolvedContentTypes.size() >= MAX_CACHED_CONTENT_TYPES) {
+      return result;
+    }
+    val previous = resolvedContentTypes.putIfAbsent(contentTypeValue, result);
+    return previous == null
+           ? result
+           : previous;
+  }
+
   private Charset getCharset (String contentTypeValue) {
     val matcher = CHARSET_PATTERN.matcher(contentTypeValue);
     return matcher.find()
            ? Charset.forName(matcher.group(1))
            : UTF_8;
   }
+
+  @Value
+  private static final class ResolvedContentType {
+
+    ContentProcessor processor;
+
+    Charset charset;
+  }
 }
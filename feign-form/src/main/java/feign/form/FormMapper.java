@@ -0,0 +1,48 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import java.util.Map;
+
+/**
+ * Converts a POJO of specific type to the form's parameters map.
+ * <p>
+ * Implementations are usually generated at compile time by {@code feign-form-processor}
+ * and found by {@link FormMappers} through the {@link java.util.ServiceLoader} mechanism.
+ *
+ * @param <T> POJO type
+ *
+ * @author Artem Labazin
+ */
+public interface FormMapper<T> {
+
+  /**
+   * Returns the POJO type, which this mapper converts.
+   *
+   * @return POJO type.
+   */
+  Class<T> getType ();
+
+  /**
+   * Converts the POJO to the map of its non-null properties.
+   *
+   * @param object POJO to convert.
+   *
+   * @return properties map.
+   */
+  Map<String, Object> toMap (T object);
+}
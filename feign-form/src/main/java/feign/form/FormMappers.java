@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import java.rmi.UnexpectedException;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * A registry of {@link FormMapper}s.
+ * <p>
+ * On the first access it loads all mappers, registered as {@link ServiceLoader}
+ * services (the generated ones are registered automatically). A provider, which can't be loaded
+ * (like a stale service entry of a removed class), is skipped, and its POJOs are converted by reflection.
+ * Additional mappers could be registered in runtime via {@link #register(FormMapper)}.
+ *
+ * @author Artem Labazin
+ */
+public final class FormMappers {
+
+  /**
+   * Registers the mapper for its type, replacing a previous one.
+   *
+   * @param mapper mapper to register.
+   */
+  public static void register (@NonNull FormMapper<?> mapper) {
+    Registry.MAPPERS.put(mapper.getType(), mapper);
+  }
+
+  /**
+   * Returns the mapper for the exact type.
+   *
+   * @param type POJO type.
+   *
+   * @param <T> POJO type.
+   *
+   * @return registered mapper or {@code null}, if there is no such mapper.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> FormMapper<T> find (@NonNull Class<T> type) {
+    return (FormMapper<T>) Registry.MAPPERS.get(type);
+  }
+
+  private FormMappers () throws UnexpectedException {
+    throw new UnexpectedException("It is not allowed to instantiate this class");
+  }
+
+  /**
+   * The registry, which is initialized on the first access, so the services are not loaded,
+   * until a mapper is needed.
+   */
+  private static final class Registry {
+
+    /**
+     * The number of the consecutive provider failures, after which the rest of the providers is skipped.
+     */
+    private static final int MAX_FAILURES = 16;
+
+    static final Map<Class<?>, FormMapper<?>> MAPPERS = load();
+
+    private static Map<Class<?>, FormMapper<?>> load () {
+      Map<Class<?>, FormMapper<?>> result = new ConcurrentHashMap<>();
+      val providers = ServiceLoader.load(FormMapper.class).iterator();
+      int failures = 0;
+      while (failures < MAX_FAILURES) {
+        try {
+          if (!providers.hasNext()) {
+            break;
+          }
+          FormMapper<?> mapper = providers.next();
+          result.put(mapper.getType(), mapper);
+          failures = 0;
+        } catch (ServiceConfigurationError | LinkageError | RuntimeException ex) {
+          // the broken provider is skipped, its type is converted by reflection;
+          // the loader recovers on the next call only on a best effort basis, so the failures are limited
+          failures++;
+        }
+      }
+      return result;
+    }
+  }
+}
@@ -23,46 +23,140 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
-import java.util.LinkedList;
 import java.util.Map;
 
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.val;
 
 import feign.RequestTemplate;
 import feign.codec.EncodeException;
 import feign.codec.Encoder;
+import feign.form.multipart.BoundaryCollisionException;
+import feign.form.multipart.BoundaryGenerator;
 import feign.form.multipart.ByteArrayWriter;
 import feign.form.multipart.DelegateWriter;
 import feign.form.multipart.FormDataWriter;
+import feign.form.multipart.Framing;
 import feign.form.multipart.ManyFilesWriter;
 import feign.form.multipart.ManyParametersWriter;
+import feign.form.multipart.MimeTypeResolver;
+import feign.form.multipart.MimeTypes;
 import feign.form.multipart.Output;
 import feign.form.multipart.PojoWriter;
+import feign.form.multipart.RandomBoundaryGenerator;
 import feign.form.multipart.SingleFileWriter;
 import feign.form.multipart.SingleParameterWriter;
 import feign.form.multipart.Writer;
+import feign.form.multipart.WriterChain;
+import feign.form.util.BufferPool;
+import feign.form.util.MemoryBudget;
 
 /**
  * Multipart form content processor.
+ * <p>
+ * The body is recorded as a rope of segments, which references the large byte arrays and files,
+ * so in buffered mode it is assembled into a single exactly sized array, without any intermediate copies.
  *
  * @author Artem Labazin
  */
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 public class MultipartFormContentProcessor implements ContentProcessor {
 
-  Deque<Writer> writers;
+  /**
+   * The number of the boundaries, which are tried, when the boundary check finds them in the content.
+   */
+  private static final int BOUNDARY_ATTEMPTS = 3;
+
+  WriterChain writers;
 
   Writer defaultPerocessor;
 
+  /**
+   * Streaming mode flag. In streaming mode files' content is not buffered
+   * in memory, but written directly to the connection by {@link StreamingClient}
+   * during request sending.
+   */
+  @Getter
+  @Setter
+  @NonFinal
+  boolean streaming;
+
+  /**
+   * The pool of the encode buffers, {@code null} by default (pooling is disabled).
+   * It is used only in buffered mode, the buffers are returned to the pool as soon as
+   * the body is assembled.
+   */
+  @Getter
+  @Setter
+  @NonFinal
+  BufferPool bufferPool;
+
+  /**
+   * The generator of the bodies' boundaries, {@link RandomBoundaryGenerator} by default.
+   */
+  @Getter
+  @Setter
+  @NonFinal
+  @NonNull
+  BoundaryGenerator boundaryGenerator = new RandomBoundaryGenerator();
+
+  /**
+   * The boundary collision check flag, {@code false} by default. If it is enabled,
+   * the parts' content is checked for the boundary, while it is written. In case of collision the body is encoded
+   * again with a new boundary, a {@link BoundaryCollisionException} is thrown, if the boundaries collide
+   * {@value #BOUNDARY_ATTEMPTS} times. In buffered mode, the files' content is checked while it is read into the body, so it is copied
+   * through the heap instead of the zero-copy transfer. In streaming mode, the files and the streams
+   * are read and checked during encoding (the collision can't be reported, when the request's
+   * headers are already sent), and read once more, when the body is sent, so the content sources must be repeatable.
+   */
+  @Getter
+  @Setter
+  @NonFinal
+  boolean boundaryCheck;
+
+  /**
+   * The resolver of the file parts' content types, {@link MimeTypes#getDefault()} by default.
+   * It is used for the files without an explicit content type.
+   */
+  @Getter
+  @Setter
+  @NonFinal
+  @NonNull
+  MimeTypeResolver mimeTypeResolver = MimeTypes.getDefault();
+
+  /**
+   * The size in bytes, at which the body's own buffer (the headers, the short values and
+   * the delegate-encoded parts) is spilled to a temporary file, {@code 0} by default (spilling is disabled).
+   * It bounds the heap of the streaming bodies regardless of their size; the temporary file is deleted,
+   * when the buffered body is assembled, or when {@link StreamingResponseInterceptor} sees, that the request
+   * is not retried.
+   */
+  @Getter
+  @Setter
+  @NonFinal
+  int spillThreshold;
+
+  /**
+   * The encode memory budget, which can be shared with the other processors, {@code null} by default
+   * (the memory is not limited). The body's buffer is reserved in the budget while the body is encoded,
+   * the buffered body is reserved until it is assembled.
+   */
+  @Getter
+  @Setter
+  @NonFinal
+  MemoryBudget memoryBudget;
+
   /**
    * Constructor with specific delegate encoder.
    *
    * @param delegate specific delegate encoder for cases, when this processor couldn't handle request parameter.
    */
   public MultipartFormContentProcessor (Encoder delegate) {
-    writers = new LinkedList<>();
+    writers = new WriterChain();
     addWriter(new ByteArrayWriter());
     addWriter(new FormDataWriter());
     addWriter(new SingleFileWriter());
@@ -76,17 +170,46 @@ public class MultipartFormContentProcessor implements ContentProcessor {
 
   @Override
   public void process (RequestTemplate template, Charset charset, Map<String, Object> data) throws EncodeException {
-    val boundary = Long.toHexString(System.currentTimeMillis());
-    try (val output = new Output(charset)) {
-      for (val entry : data.entrySet()) {
-        if (entry == null || entry.getKey() == null || entry.getValue() == null) {
-          continue;
+    encode(template, charset, data, -1);
+  }
+
+  @Override
+  public int process (RequestTemplate template, Charset charset, Map<String, Object> data, int bufferSizeHint
+  ) throws EncodeException {
+    if (ProcessOverrides.overridesPlainProcess(getClass(), MultipartFormContentProcessor.class)) {
+      // the subclass customizes the plain method, so it is called without the hint
+      process(template, charset, data);
+      return -1;
+    }
+    return encode(template, charset, data, bufferSizeHint);
+  }
+
+  private int encode (RequestTemplate template, Charset charset, Map<String, Object> data, int bufferSizeHint) {
+    for (int attempt = 1;; attempt++) {
+      try {
+        return encode(template, charset, data, bufferSizeHint, generateBoundary());
+      } catch (BoundaryCollisionException ex) {
+        if (attempt == BOUNDARY_ATTEMPTS) {
+          throw ex;
         }
-        val writer = findApplicableWriter(entry.getValue());
-        writer.write(output, boundary, entry.getKey(), entry.getValue());
       }
+    }
+  }
 
-      output.write("--").write(boundary).write("--").write(CRLF);
+  private int encode (RequestTemplate template, Charset charset, Map<String, Object> data, int bufferSizeHint,
+                      String boundary
+  ) {
+    try (Output output = streaming
+                         ? new Output(charset, true)
+                         : new Output(charset, bufferPool)) {
+      if (boundaryCheck) {
+        output.checkBoundary(boundary);
+      }
+      output.setSpillThreshold(spillThreshold);
+      output.setMemoryBudget(memoryBudget);
+      // after the limits are set, so the presized buffer is limited and reserved too
+      output.presize(bufferSizeHint);
+      writeBody(output, boundary, data);
 
       val contentTypeHeaderValue = new StringBuilder()
           .append(getSupportedContentType().getHeader())
@@ -97,13 +220,51 @@ public class MultipartFormContentProcessor implements ContentProcessor {
       template.header(CONTENT_TYPE_HEADER, Collections.<String>emptyList()); // reset header
       template.header(CONTENT_TYPE_HEADER, contentTypeHeaderValue);
 
+      if (output.isStreaming()) {
+        StreamingBodies.bind(template, output);
+        return output.getBufferedSize();
+      }
+
       // Feign's clients try to determine binary/string content by charset presence
       // so, I set it to null (in spite of availability charset) for backward compatibility.
       val bytes = output.toByteArray();
       template.body(bytes, null);
+      return output.getBufferedSize();
     } catch (IOException ex) {
-      throw new EncodeException("Output closing error", ex);
+      throw new EncodeException("Multipart body writing error", ex);
+    }
+  }
+
+  /**
+   * Computes the exact size of the multipart body for the data and the boundary, without building the body.
+   * Files are counted by their lengths and not read. The size can be computed only, if every value's writer
+   * can size it without side effects (see {@link Writer#isSizeable(Object)}): the built-in writers can,
+   * but the values, which are encoded by the delegate encoder, can't, because the encoder would be run twice.
+   * <p>
+   * The boundaries, generated by {@link RandomBoundaryGenerator}, have the same length, otherwise
+   * the body should be built with the same boundary, see {@code boundaryGenerator} property.
+   *
+   * @param charset  body's charset.
+   * @param data     form data.
+   * @param boundary body's boundary.
+   *
+   * @return the body size in bytes, or {@code -1}, if there is a value, which can't be sized.
+   *
+   * @throws EncodeException in case of the data encoding errors.
+   */
+  @SuppressWarnings("PMD.CloseResource") // the sizing output doesn't hold any resources
+  public long estimateSize (Charset charset, Map<String, Object> data, String boundary) throws EncodeException {
+    for (val entry : data.entrySet()) {
+      if (entry == null || entry.getKey() == null || entry.getValue() == null) {
+        continue;
+      }
+      if (!findApplicableWriter(entry.getValue()).isSizeable(entry.getValue())) {
+        return -1;
+      }
     }
+    Output output = Output.sizing(charset);
+    writeBody(output, boundary, data);
+    return output.size();
   }
 
   @Override
@@ -117,7 +278,7 @@ public class MultipartFormContentProcessor implements ContentProcessor {
    * @param writer additional writer.
    */
   public final void addWriter (Writer writer) {
-    writers.add(writer);
+    writers.addLast(writer);
   }
 
   /**
@@ -146,15 +307,29 @@ public class MultipartFormContentProcessor implements ContentProcessor {
    * @return writers collection.
    */
   public final Collection<Writer> getWriters () {
-    return Collections.unmodifiableCollection(writers);
+    return writers.getWriters();
   }
 
-  private Writer findApplicableWriter (Object value) {
-    for (val writer : writers) {
-      if (writer.isApplicable(value)) {
-        return writer;
+  private void writeBody (Output output, String boundary, Map<String, Object> data) {
+    output.setMimeTypeResolver(mimeTypeResolver);
+    for (val entry : data.entrySet()) {
+      if (entry == null || entry.getKey() == null || entry.getValue() == null) {
+        continue;
       }
+      val writer = findApplicableWriter(entry.getValue());
+      writer.write(output, boundary, entry.getKey(), entry.getValue());
     }
-    return defaultPerocessor;
+    Framing.of(output.getCharset()).writeCloseDelimiter(output, boundary);
+  }
+
+  private String generateBoundary () {
+    return boundaryGenerator.generate();
+  }
+
+  private Writer findApplicableWriter (Object value) {
+    val writer = writers.find(value);
+    return writer == null
+           ? defaultPerocessor
+           : writer;
   }
 }
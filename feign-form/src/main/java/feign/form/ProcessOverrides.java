@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import java.nio.charset.Charset;
+import java.rmi.UnexpectedException;
+import java.util.Map;
+
+import feign.RequestTemplate;
+
+/**
+ * Detects the content processors' subclasses, which override the plain
+ * {@link ContentProcessor#process(RequestTemplate, Charset, Map)} method. Such subclasses
+ * are called through that method, so the buffer size hint is not used for them.
+ *
+ * @author Artem Labazin
+ */
+final class ProcessOverrides {
+
+  private static final ClassValue<Class<?>> DECLARING_CLASSES = new ClassValue<Class<?>>() {
+
+    @Override
+    protected Class<?> computeValue (Class<?> type) {
+      try {
+        return type.getMethod("process", RequestTemplate.class, Charset.class, Map.class).getDeclaringClass();
+      } catch (NoSuchMethodException ex) {
+        throw new IllegalStateException("A content processor without the process method: " + type, ex);
+      }
+    }
+  };
+
+  /**
+   * Tells, if the processor's class overrides the plain process method of the base class.
+   *
+   * @param type the processor's class.
+   * @param base the built-in processor's class, which declares the plain process method.
+   *
+   * @return {@code true}, if the method is overridden.
+   */
+  static boolean overridesPlainProcess (Class<?> type, Class<?> base) {
+    return DECLARING_CLASSES.get(type) != base;
+  }
+
+  private ProcessOverrides () throws UnexpectedException {
+    throw new UnexpectedException("It is not allowed to instantiate this class");
+  }
+}
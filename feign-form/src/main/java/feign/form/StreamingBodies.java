@@ -0,0 +1,147 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import static feign.Util.CONTENT_LENGTH;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.rmi.UnexpectedException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.val;
+
+import feign.Request;
+import feign.RequestTemplate;
+import feign.form.multipart.Output;
+import feign.form.util.ResourceReaper;
+
+/**
+ * A registry of the multipart bodies, which were encoded in streaming mode.
+ * <p>
+ * A template gets an empty placeholder body and a marker header, which identifies the real content.
+ * The marker's value is not a valid HTTP header value (it contains a line break), so any client,
+ * except {@link StreamingClient}, which removes the marker, rejects the request instead of sending
+ * the empty placeholder with the real body's {@code Content-Length}.
+ * <p>
+ * A body is unregistered, when it is released, or, at the latest, when its request is garbage collected.
+ *
+ * @author Artem Labazin
+ */
+final class StreamingBodies {
+
+  /**
+   * The name of the marker header of the streaming requests.
+   */
+  static final String MARKER_HEADER = "Feign-Form-Streaming-Body";
+
+  private static final String MARKER_SUFFIX = "\nrequires StreamingClient";
+
+  private static final Map<String, Output> BODIES = new ConcurrentHashMap<>();
+
+  private static final AtomicLong IDS = new AtomicLong();
+
+  /**
+   * Binds the output to the template.
+   *
+   * @param template Feign's request template.
+   * @param output   recorded multipart body plan.
+   */
+  static void bind (RequestTemplate template, Output output) {
+    String id = Long.toString(IDS.incrementAndGet());
+    BODIES.put(id, output);
+
+    // Feign's clients try to determine binary/string content by charset presence
+    // so, I set it to null (in spite of availability charset) for backward compatibility.
+    byte[] placeholder = new byte[0];
+    template.body(placeholder, null);
+    template.header(CONTENT_LENGTH, String.valueOf(output.size()));
+    template.header(MARKER_HEADER, id + MARKER_SUFFIX);
+    // the placeholder lives as long as the template and its requests
+    ResourceReaper.register(placeholder, releasing(id));
+  }
+
+  /**
+   * Tells, if the request was encoded in streaming mode.
+   *
+   * @param request Feign's request.
+   *
+   * @return {@code true}, if the request has a streaming body.
+   */
+  static boolean isStreaming (Request request) {
+    return id(request) != null;
+  }
+
+  /**
+   * Searches the output bound to the request.
+   *
+   * @param request Feign's request.
+   *
+   * @return bound output or {@code null}, if the request has no streaming body, or it was released.
+   */
+  static Output find (Request request) {
+    val id = id(request);
+    return id == null
+           ? null
+           : BODIES.get(id);
+  }
+
+  /**
+   * Unregisters and releases the output bound to the request, if there is one.
+   *
+   * @param request Feign's request.
+   *
+   * @throws IOException in case of the output releasing error.
+   */
+  static void release (Request request) throws IOException {
+    val id = id(request);
+    if (id != null) {
+      release(id);
+    }
+  }
+
+  private static String id (Request request) {
+    Collection<String> values = request.headers().get(MARKER_HEADER);
+    if (values == null || values.isEmpty()) {
+      return null;
+    }
+    String value = values.iterator().next();
+    return value.endsWith(MARKER_SUFFIX)
+           ? value.substring(0, value.length() - MARKER_SUFFIX.length())
+           : value;
+  }
+
+  private static Closeable releasing (String id) {
+    // the release must not reference the placeholder, to let it be garbage collected
+    return () -> release(id);
+  }
+
+  @SuppressWarnings("PMD.CloseResource") // the output is released, it isn't closed
+  private static void release (String id) throws IOException {
+    Output output = BODIES.remove(id);
+    if (output != null) {
+      output.release();
+    }
+  }
+
+  private StreamingBodies () throws UnexpectedException {
+    throw new UnexpectedException("It is not allowed to instantiate this class");
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import static feign.Util.CONTENT_ENCODING;
+import static feign.Util.CONTENT_LENGTH;
+import static feign.Util.ENCODING_DEFLATE;
+import static feign.Util.ENCODING_GZIP;
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+import feign.form.multipart.Output;
+
+/**
+ * A {@link Client}, which sends multipart bodies, encoded by {@link MultipartFormContentProcessor}
+ * in streaming mode, directly to the connection's output stream. All other requests are passed
+ * to the delegate.
+ * <p>
+ * The streaming is {@link HttpURLConnection}-only: the delegate is always a {@link Client.Default}, and
+ * the streaming requests are sent over its connections (see {@link Client.Default#getConnection(URL)}),
+ * with the TLS settings given to this client. The other clients (OkHttp, Apache, etc.) can't send
+ * the streaming bodies and reject them. As the connection exposes only an output stream,
+ * the files are copied to it through a buffer, not transferred by the file channel.
+ * <p>
+ * The streaming bodies are kept after sending, because Feign could retry the request, register
+ * {@link StreamingResponseInterceptor} to release them, as soon as their requests are not retried.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public class StreamingClient implements Client {
+
+  Client.Default delegate;
+
+  SSLSocketFactory sslContextFactory;
+
+  HostnameVerifier hostnameVerifier;
+
+  /**
+   * Constructor with the default Feign's client as a delegate.
+   */
+  public StreamingClient () {
+    this(null, null);
+  }
+
+  /**
+   * Constructor with HTTPS settings for all requests.
+   *
+   * @param sslContextFactory SSL socket factory for HTTPS requests, or {@code null}.
+   * @param hostnameVerifier  hostname verifier for HTTPS requests, or {@code null}.
+   */
+  public StreamingClient (SSLSocketFactory sslContextFactory, HostnameVerifier hostnameVerifier) {
+    this(new Client.Default(sslContextFactory, hostnameVerifier), sslContextFactory, hostnameVerifier);
+  }
+
+  /**
+   * Constructor with specified delegate client, for example, one with the overridden
+   * {@link Client.Default#getConnection(URL)}, which opens the connections through a proxy.
+   *
+   * @param delegate client for the requests, which were not encoded in streaming mode,
+   *                 and the connections of the streaming ones.
+   */
+  public StreamingClient (Client.Default delegate) {
+    this(delegate, null, null);
+  }
+
+  /**
+   * Constructor with specified delegate client and HTTPS settings for the streaming requests.
+   *
+   * @param delegate          client for the requests, which were not encoded in streaming mode,
+   *                          and the connections of the streaming ones.
+   * @param sslContextFactory SSL socket factory for the streaming HTTPS requests, or {@code null}.
+   * @param hostnameVerifier  hostname verifier for the streaming HTTPS requests, or {@code null}.
+   */
+  public StreamingClient (Client.Default delegate, SSLSocketFactory sslContextFactory,
+                          HostnameVerifier hostnameVerifier
+  ) {
+    this.delegate = delegate;
+    this.sslContextFactory = sslContextFactory;
+    this.hostnameVerifier = hostnameVerifier;
+  }
+
+  @Override
+  @SuppressWarnings("PMD.CloseResource") // the output is released by StreamingResponseInterceptor
+  public Response execute (Request request, Options options) throws IOException {
+    if (!StreamingBodies.isStreaming(request)) {
+      return delegate.execute(request, options);
+    }
+    Output output = StreamingBodies.find(request);
+    if (output == null) {
+      throw new IllegalStateException("The streaming body of the request was already released: " + request.url());
+    }
+    HttpURLConnection connection = send(request, options, output);
+    return convertResponse(connection, request);
+  }
+
+  private HttpURLConnection send (Request request, Options options, Output output) throws IOException {
+    HttpURLConnection connection = delegate.getConnection(new URL(request.url()));
+    if (connection instanceof HttpsURLConnection) {
+      val sslConnection = (HttpsURLConnection) connection;
+      if (sslContextFactory != null) {
+        sslConnection.setSSLSocketFactory(sslContextFactory);
+      }
+      if (hostnameVerifier != null) {
+        sslConnection.setHostnameVerifier(hostnameVerifier);
+      }
+    }
+    connection.setConnectTimeout(options.connectTimeoutMillis());
+    connection.setReadTimeout(options.readTimeoutMillis());
+    connection.setAllowUserInteraction(false);
+    connection.setInstanceFollowRedirects(options.isFollowRedirects());
+    connection.setRequestMethod(request.httpMethod().name());
+
+    boolean hasAcceptHeader = false;
+    for (val entry : request.headers().entrySet()) {
+      if (CONTENT_LENGTH.equalsIgnoreCase(entry.getKey())
+          || StreamingBodies.MARKER_HEADER.equalsIgnoreCase(entry.getKey())) {
+        continue;
+      }
+      hasAcceptHeader |= "Accept".equalsIgnoreCase(entry.getKey());
+      for (val value : entry.getValue()) {
+        connection.addRequestProperty(entry.getKey(), value);
+      }
+    }
+    if (!hasAcceptHeader) {
+      connection.addRequestProperty("Accept", "*/*");
+    }
+
+    writeBody(connection, output);
+    return connection;
+  }
+
+  private void writeBody (HttpURLConnection connection, Output output) throws IOException {
+    connection.setDoOutput(true);
+    connection.setFixedLengthStreamingMode(output.size());
+    boolean sent = false;
+    try (val stream = connection.getOutputStream()) {
+      output.writeTo(stream);
+      sent = true;
+    } finally {
+      if (!sent) {
+        // the server got a truncated body, the connection can't be reused
+        connection.disconnect();
+      }
+    }
+  }
+
+  private Response convertResponse (HttpURLConnection connection, Request request) throws IOException {
+    val status = connection.getResponseCode();
+    val reason = connection.getResponseMessage();
+    if (status < 0) {
+      val message = String.format("Invalid status(%s) executing %s %s",
+                                  status, connection.getRequestMethod(), connection.getURL());
+      throw new IOException(message);
+    }
+
+    Map<String, Collection<String>> headers = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+    for (val entry : connection.getHeaderFields().entrySet()) {
+      if (entry.getKey() != null) {
+        headers.put(entry.getKey(), entry.getValue());
+      }
+    }
+
+    val length = connection.getContentLength();
+    InputStream stream = status >= 400
+                         ? connection.getErrorStream()
+                         : connection.getInputStream();
+    if (stream != null && contains(headers.get(CONTENT_ENCODING), ENCODING_GZIP)) {
+      stream = new GZIPInputStream(stream);
+    } else if (stream != null && contains(headers.get(CONTENT_ENCODING), ENCODING_DEFLATE)) {
+      stream = new InflaterInputStream(stream);
+    }
+
+    return Response.builder()
+        .status(status)
+        .reason(reason)
+        .headers(headers)
+        .request(request)
+        .body(stream, length >= 0 ? length : null)
+        .build();
+  }
+
+  private boolean contains (Collection<String> values, String expected) {
+    if (values == null) {
+      return false;
+    }
+    for (val value : values) {
+      if (expected.equalsIgnoreCase(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import feign.InvocationContext;
+import feign.ResponseInterceptor;
+import feign.RetryableException;
+
+/**
+ * A {@link ResponseInterceptor}, which releases the streaming bodies (their spill files and
+ * memory reservations), as soon as it is known, that their requests are not retried.
+ * <p>
+ * The body is kept, if the response is decoded into a {@link RetryableException},
+ * because the {@link feign.Retryer} could send the request again. The bodies, which are not
+ * released by the interceptor (the retries are exhausted, or the request failed with an I/O error),
+ * are released, when their requests are garbage collected.
+ *
+ * @author Artem Labazin
+ */
+public class StreamingResponseInterceptor implements ResponseInterceptor {
+
+  @Override
+  public Object intercept (InvocationContext invocationContext, Chain chain) throws Exception {
+    boolean retryable = false;
+    try {
+      return chain.next(invocationContext);
+    } catch (RetryableException ex) {
+      retryable = true;
+      throw ex;
+    } finally {
+      if (!retryable) {
+        StreamingBodies.release(invocationContext.response().request());
+      }
+    }
+  }
+}
@@ -17,22 +17,33 @@
 package feign.form;
 
 import static feign.form.ContentType.URLENCODED;
+import static feign.form.util.PrimitiveArrays.forEach;
+import static feign.form.util.PrimitiveArrays.isPrimitiveArray;
 
-import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import lombok.SneakyThrows;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.val;
 
 import feign.RequestTemplate;
 import feign.codec.EncodeException;
+import feign.form.util.BufferPool;
+import feign.form.util.ByteArrayBuilder;
+import feign.form.util.FormUrlEncoder;
+import feign.form.util.MemoryBudget;
+import feign.form.util.MemoryReservation;
 
 /**
  * An URL encoded form content processor.
+ * <p>
+ * The body is percent-encoded directly into a single byte buffer,
+ * the encoded bytes of the frequently used keys are cached. The arrays of primitives
+ * are written without boxing their elements.
  *
  * @author Artem Labazin
  */
@@ -42,22 +53,65 @@ public class UrlencodedFormContentProcessor implements ContentProcessor {
 
   private static final char EQUAL_SIGN = '=';
 
-  @SneakyThrows
-  private static String encode (Object string, Charset charset) {
-    return URLEncoder.encode(string.toString(), charset.name());
-  }
+  private static final int INITIAL_CAPACITY = 256;
+
+  /**
+   * The maximum presized capacity, so a single large request doesn't make all next ones allocate as much.
+   */
+  private static final int MAX_PRESIZE = 1024 * 1024;
+
+  /**
+   * The pool of the encode buffers, {@code null} by default (pooling is disabled).
+   * The buffer is returned to the pool as soon as the body is copied out of it.
+   */
+  @Getter
+  @Setter
+  private BufferPool bufferPool;
+
+  /**
+   * The encode memory budget, which can be shared with the other processors, {@code null} by default
+   * (the memory is not limited). The buffer's capacity is reserved in the budget before the buffer grows,
+   * and the reservation is returned, when the body is copied out of the buffer.
+   */
+  @Getter
+  @Setter
+  private MemoryBudget memoryBudget;
 
   @Override
   public void process (RequestTemplate template, Charset charset, Map<String, Object> data) throws EncodeException {
-    val bodyData = new StringBuilder();
-    for (Entry<String, Object> entry : data.entrySet()) {
-      if (entry == null || entry.getKey() == null) {
-        continue;
-      }
-      if (bodyData.length() > 0) {
-        bodyData.append(QUERY_DELIMITER);
+    encode(template, charset, data, -1);
+  }
+
+  @Override
+  public int process (RequestTemplate template, Charset charset, Map<String, Object> data, int bufferSizeHint
+  ) throws EncodeException {
+    if (ProcessOverrides.overridesPlainProcess(getClass(), UrlencodedFormContentProcessor.class)) {
+      // the subclass customizes the plain method, so it is called without the hint
+      process(template, charset, data);
+      return -1;
+    }
+    return encode(template, charset, data, bufferSizeHint);
+  }
+
+  private int encode (RequestTemplate template, Charset charset, Map<String, Object> data, int bufferSizeHint) {
+    FormUrlEncoder encoder = FormUrlEncoder.of(charset);
+    MemoryReservation reservation = new MemoryReservation(memoryBudget);
+    val capacity = presize(bufferSizeHint, reservation);
+    ByteArrayBuilder body = new ByteArrayBuilder(capacity, bufferPool);
+    byte[] bytes;
+    try {
+      for (Entry<String, Object> entry : data.entrySet()) {
+        if (entry == null || entry.getKey() == null) {
+          continue;
+        }
+        writeKeyValuePair(entry.getKey(), entry.getValue(), encoder, body, reservation);
       }
-      bodyData.append(createKeyValuePair(entry, charset));
+      // the buffer and its copy
+      reservation.cover((long) body.capacity() + body.length());
+      bytes = body.toByteArray();
+    } finally {
+      body.release();
+      reservation.release();
     }
 
     val contentTypeValue = new StringBuilder()
@@ -65,11 +119,10 @@ public class UrlencodedFormContentProcessor implements ContentProcessor {
         .append("; charset=").append(charset.name())
         .toString();
 
-    val bytes = bodyData.toString().getBytes(charset);
-
     template.header(CONTENT_TYPE_HEADER, Collections.<String>emptyList()); // reset header
     template.header(CONTENT_TYPE_HEADER, contentTypeValue);
     template.body(bytes, charset);
+    return bytes.length;
   }
 
   @Override
@@ -77,49 +130,70 @@ public class UrlencodedFormContentProcessor implements ContentProcessor {
     return URLENCODED;
   }
 
-  private String createKeyValuePair (Entry<String, Object> entry, Charset charset) {
-    String encodedKey = encode(entry.getKey(), charset);
-    Object value = entry.getValue();
+  /**
+   * Limits the hint and reserves it, before the buffer is allocated; the default capacity is used,
+   * if the budget doesn't have the memory for the hint.
+   */
+  private static int presize (int bufferSizeHint, MemoryReservation reservation) {
+    if (bufferSizeHint <= INITIAL_CAPACITY) {
+      return INITIAL_CAPACITY;
+    }
+    val capacity = Math.min(bufferSizeHint, MAX_PRESIZE);
+    return reservation.tryCover(capacity)
+           ? capacity
+           : INITIAL_CAPACITY;
+  }
 
+  private void writeKeyValuePair (String key, Object value, FormUrlEncoder encoder,
+                                  ByteArrayBuilder body, MemoryReservation reservation
+  ) {
     if (value == null) {
-      return encodedKey;
+      writeKey(key, encoder, body);
+    } else if (isPrimitiveArray(value)) {
+      forEach(value, text -> writeText(key, text, encoder, body, reservation));
     } else if (value.getClass().isArray()) {
-      return createKeyValuePairFromArray(encodedKey, value, charset);
+      for (Object element : (Object[]) value) {
+        writeNotNullPair(key, element, encoder, body, reservation);
+      }
     } else if (value instanceof Collection) {
-      return createKeyValuePairFromCollection(encodedKey, value, charset);
+      for (Object element : (Collection<?>) value) {
+        writeNotNullPair(key, element, encoder, body, reservation);
+      }
+    } else {
+      writeNotNullPair(key, value, encoder, body, reservation);
     }
-    return new StringBuilder()
-        .append(encodedKey)
-        .append(EQUAL_SIGN)
-        .append(encode(value, charset))
-        .toString();
   }
 
-  private String createKeyValuePairFromCollection (String key, Object values, Charset charset) {
-    val collection = (Collection<?>) values;
-    val array = collection.toArray(new Object[0]);
-    return createKeyValuePairFromArray(key, array, charset);
+  private void writeNotNullPair (String key, Object value, FormUrlEncoder encoder,
+                                 ByteArrayBuilder body, MemoryReservation reservation
+  ) {
+    if (value == null) {
+      return;
+    }
+    val text = value instanceof CharSequence
+               ? (CharSequence) value
+               : value.toString();
+    writeText(key, text, encoder, body, reservation);
   }
 
-  private String createKeyValuePairFromArray (String key, Object values, Charset charset) {
-    val result = new StringBuilder();
-    val array = (Object[]) values;
-
-    for (int index = 0; index < array.length; index++) {
-      val value = array[index];
-      if (value == null) {
-        continue;
-      }
-
-      if (index > 0) {
-        result.append(QUERY_DELIMITER);
-      }
+  private void writeText (String key, CharSequence text, FormUrlEncoder encoder,
+                          ByteArrayBuilder body, MemoryReservation reservation
+  ) {
+    // every character is encoded into one byte at least, the capacity is reserved before the buffer grows
+    val required = body.length() + key.length() + text.length() + 2;
+    reservation.cover(body.grownCapacity(required));
+    body.ensureCapacity(required);
+    writeKey(key, encoder, body);
+    body.append(EQUAL_SIGN);
+    encoder.encode(text, body);
+    // the escaped characters could grow the buffer further
+    reservation.cover(body.capacity());
+  }
 
-      result
-          .append(key)
-          .append(EQUAL_SIGN)
-          .append(encode(value, charset));
+  private void writeKey (String key, FormUrlEncoder encoder, ByteArrayBuilder body) {
+    if (body.length() > 0) {
+      body.append(QUERY_DELIMITER);
     }
-    return result.toString();
+    encoder.encodeKey(key, body);
   }
 }
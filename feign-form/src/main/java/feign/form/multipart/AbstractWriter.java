@@ -16,10 +16,6 @@
 
 package feign.form.multipart;
 
-import static feign.form.ContentProcessor.CRLF;
-
-import java.net.URLConnection;
-
 import lombok.val;
 
 import feign.codec.EncodeException;
@@ -33,9 +29,10 @@ public abstract class AbstractWriter implements Writer {
 
   @Override
   public void write (Output output, String boundary, String key, Object value) throws EncodeException {
-    output.write("--").write(boundary).write(CRLF);
+    val framing = Framing.of(output.getCharset());
+    framing.writeDelimiter(output, boundary);
     write(output, key, value);
-    output.write(CRLF);
+    framing.writeLineBreak(output);
   }
 
   /**
@@ -60,32 +57,13 @@ public abstract class AbstractWriter implements Writer {
    * @param output      output writer.
    * @param name        name for piece of data.
    * @param fileName    file name.
-   * @param contentType type of file content. May be the {@code null}, in that case it will be determined by file name.
+   * @param contentType type of file content. May be the {@code null}, in that case it will be determined by file name
+   *                    with the output's {@link MimeTypeResolver}.
    */
   protected void writeFileMetadata (Output output, String name, String fileName, String contentType) {
-    val contentDespositionBuilder = new StringBuilder()
-        .append("Content-Disposition: form-data; name=\"").append(name).append("\"");
-    if (fileName != null) {
-      contentDespositionBuilder.append("; ").append("filename=\"").append(fileName).append("\"");
-    }
-
-    String fileContentType = contentType;
-    if (fileContentType == null) {
-      if (fileName != null) {
-        fileContentType = URLConnection.guessContentTypeFromName(fileName);
-      }
-      if (fileContentType == null) {
-        fileContentType = "application/octet-stream";
-      }
-    }
-
-    val string = new StringBuilder()
-        .append(contentDespositionBuilder.toString()).append(CRLF)
-        .append("Content-Type: ").append(fileContentType).append(CRLF)
-        .append("Content-Transfer-Encoding: binary").append(CRLF)
-        .append(CRLF)
-        .toString();
-
-    output.write(string);
+    val resolvedContentType = contentType == null
+                              ? output.getMimeTypeResolver().resolve(fileName)
+                              : contentType;
+    output.writeFraming(Framing.of(output.getCharset()).fileHeader(name, fileName, resolvedContentType));
   }
 }
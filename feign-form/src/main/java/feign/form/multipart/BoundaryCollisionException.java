@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import feign.codec.EncodeException;
+
+/**
+ * The exception, which is thrown if the multipart boundary occurs in the parts' content.
+ * The body with such boundary is not parsed correctly by the server,
+ * so it is not sent.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public class BoundaryCollisionException extends EncodeException {
+
+  private static final long serialVersionUID = 6510232374873658297L;
+
+  /**
+   * The boundary, which was found in the content.
+   */
+  @Getter
+  String boundary;
+
+  /**
+   * Constructor with the collided boundary.
+   *
+   * @param boundary the boundary, which was found in the content.
+   */
+  public BoundaryCollisionException (String boundary) {
+    super("The multipart boundary '" + boundary + "' occurs in the content, " +
+          "the body is not sent, consider a longer or more random BoundaryGenerator");
+    this.boundary = boundary;
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+/**
+ * A multipart boundary generator. It is called for every encoded body, so it must be thread safe.
+ * <p>
+ * A boundary must not occur in the parts' content, so it should be long and random enough.
+ * According to RFC 2046, it must be 1 to 70 characters long, digits, letters
+ * and the {@code '()+_,-./:=?} characters are allowed.
+ *
+ * @author Artem Labazin
+ */
+@FunctionalInterface
+public interface BoundaryGenerator {
+
+  /**
+   * Generates the next boundary.
+   *
+   * @return new boundary.
+   */
+  String generate ();
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.nio.ByteBuffer;
+
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+/**
+ * A streaming search of the {@code "--" + boundary} sequence in the parts' content.
+ * It is the Knuth-Morris-Pratt matcher, which keeps its state between the scanned fragments,
+ * so the content is checked as it is written, without a second pass over it.
+ * <p>
+ * The boundary consists of ASCII characters, so it is searched for as ASCII bytes,
+ * which is correct for the ASCII compatible charsets (the ones used for multipart bodies).
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class BoundaryScanner {
+
+  private static final char ASCII_LIMIT = 0x80;
+
+  private static final byte NOT_ASCII = -1;
+
+  String boundary;
+
+  byte[] pattern;
+
+  int[] fallback;
+
+  @NonFinal
+  int matched;
+
+  BoundaryScanner (String boundary) {
+    this.boundary = boundary;
+    pattern = ("--" + boundary).getBytes(US_ASCII);
+    fallback = new int[pattern.length];
+    int length = 0;
+    int index = 1;
+    while (index < pattern.length) {
+      if (pattern[index] == pattern[length]) {
+        fallback[index++] = ++length;
+      } else if (length > 0) {
+        length = fallback[length - 1];
+      } else {
+        fallback[index++] = 0;
+      }
+    }
+  }
+
+  private BoundaryScanner (BoundaryScanner prototype) {
+    boundary = prototype.boundary;
+    pattern = prototype.pattern;
+    fallback = prototype.fallback;
+  }
+
+  /**
+   * Creates a scanner of the same boundary with its own state.
+   *
+   * @return new scanner.
+   */
+  BoundaryScanner copy () {
+    return new BoundaryScanner(this);
+  }
+
+  /**
+   * Forgets the partial match, it is called at the parts' framing.
+   */
+  void reset () {
+    matched = 0;
+  }
+
+  void scan (byte value) {
+    next(value);
+  }
+
+  void scan (byte[] bytes, int offset, int length) {
+    for (int index = offset; index < offset + length; index++) {
+      next(bytes[index]);
+    }
+  }
+
+  void scan (ByteBuffer buffer) {
+    for (int index = buffer.position(); index < buffer.limit(); index++) {
+      next(buffer.get(index));
+    }
+  }
+
+  /**
+   * Scans the text, the ASCII characters of the text are the same as the ASCII bytes
+   * of its encoded form in any ASCII compatible charset.
+   */
+  void scan (CharSequence text) {
+    for (int index = 0; index < text.length(); index++) {
+      val symbol = text.charAt(index);
+      next(symbol < ASCII_LIMIT
+           ? (byte) symbol
+           : NOT_ASCII);
+    }
+  }
+
+  private void next (byte value) {
+    while (matched > 0 && pattern[matched] != value) {
+      matched = fallback[matched - 1];
+    }
+    if (pattern[matched] == value) {
+      matched++;
+    }
+    if (matched == pattern.length) {
+      matched = 0;
+      throw new BoundaryCollisionException(boundary);
+    }
+  }
+}
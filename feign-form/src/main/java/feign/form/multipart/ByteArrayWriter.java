@@ -30,6 +30,16 @@ public class ByteArrayWriter extends AbstractWriter {
     return value instanceof byte[];
   }
 
+  @Override
+  public boolean isCacheable (Class<?> type) {
+    return true;
+  }
+
+  @Override
+  public boolean isSizeable (Object value) {
+    return true;
+  }
+
   @Override
   protected void write (Output output, String key, Object value) throws EncodeException {
     writeFileMetadata(output, key, null, null);
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import feign.form.util.ByteArrayBuilder;
+
+/**
+ * A segment of bytes in the heap: a view of the output's own buffer, or a referenced caller's array.
+ *
+ * @author Artem Labazin
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class BytesSegment implements Segment {
+
+  ByteBuffer buffer;
+
+  /**
+   * {@code true} for the views of the output's own buffer, {@code false} for the referenced caller's arrays.
+   */
+  boolean owned;
+
+  /**
+   * Tells if the segment is a view of the output's own buffer.
+   *
+   * @return {@code true} for the output's own bytes.
+   */
+  boolean isOwned () {
+    return owned;
+  }
+
+  /**
+   * Returns the independent view of the segment's bytes.
+   *
+   * @return the bytes.
+   */
+  ByteBuffer view () {
+    return buffer.duplicate();
+  }
+
+  @Override
+  public long length () {
+    return buffer.remaining();
+  }
+
+  @Override
+  public void writeTo (WritableByteChannel channel) throws IOException {
+    Segment.writeFully(channel, view());
+  }
+
+  @Override
+  public void writeTo (ByteArrayBuilder builder) {
+    builder.append(view());
+  }
+}
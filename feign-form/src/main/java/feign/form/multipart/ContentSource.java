@@ -0,0 +1,51 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A source of the part's content, which is read only when the body is written
+ * (see {@link Output#write(ContentSource, long)}). A streaming body may be sent more
+ * than once (for example, during retries), so every call must open a new stream from the beginning.
+ *
+ * @author Artem Labazin
+ */
+@FunctionalInterface
+public interface ContentSource {
+
+  /**
+   * Opens a new stream of the content.
+   *
+   * @return content stream.
+   *
+   * @throws IOException in case of opening error.
+   */
+  InputStream getInputStream () throws IOException;
+
+  /**
+   * Tells, if the source opens a new stream from the beginning on every call, as it should.
+   * A one-shot source (like a request's stream) returns {@code false}: it can't be written
+   * to a streaming body with the boundary check, which reads the content twice.
+   *
+   * @return {@code true} by default.
+   */
+  default boolean isRepeatable () {
+    return true;
+  }
+}
@@ -16,8 +16,12 @@
 
 package feign.form.multipart;
 
+import static feign.form.ContentProcessor.CONTENT_TYPE_HEADER;
 import static lombok.AccessLevel.PRIVATE;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.val;
@@ -27,7 +31,11 @@ import feign.codec.EncodeException;
 import feign.codec.Encoder;
 
 /**
- * A delegate writer.
+ * A delegate writer. The delegate's output is written as the part's content as is,
+ * the part is labeled with the delegate's content type, if it is known, otherwise with {@code text/plain}.
+ * <p>
+ * A {@link StreamingEncoder} delegate writes directly into the output, other encoders
+ * write into a temporary request template.
  *
  * @author Artem Labazin
  */
@@ -37,19 +45,48 @@ public class DelegateWriter extends AbstractWriter {
 
   Encoder delegate;
 
-  SingleParameterWriter parameterWriter = new SingleParameterWriter();
-
   @Override
   public boolean isApplicable (Object value) {
     return true;
   }
 
+  @Override
+  public boolean isCacheable (Class<?> type) {
+    return true;
+  }
+
   @Override
   protected void write (Output output, String key, Object value) throws EncodeException {
-    val fake = new RequestTemplate();
-    delegate.encode(value, value.getClass(), fake);
-    val bytes = fake.body();
-    val string = new String(bytes, output.getCharset()).replaceAll("\n", "");
-    parameterWriter.write(output, key, string);
+    val framing = Framing.of(output.getCharset());
+    if (delegate instanceof StreamingEncoder) {
+      val encoder = (StreamingEncoder) delegate;
+      output.writeFraming(framing.partHeader(key, encoder.getContentType()));
+      try {
+        encoder.encode(value, value.getClass(), output.getCharset(), output.asStream());
+      } catch (IOException ex) {
+        throw new EncodeException("Delegate encoder's writing error", ex);
+      }
+      return;
+    }
+
+    RequestTemplate template = new RequestTemplate();
+    delegate.encode(value, value.getClass(), template);
+    output.writeFraming(framing.partHeader(key, contentType(template, output.getCharset())));
+    val body = template.body();
+    if (body != null) {
+      output.write(body);
+    }
+  }
+
+  private static String contentType (RequestTemplate template, Charset defaultCharset) {
+    for (val entry : template.headers().entrySet()) {
+      if (entry.getKey().equalsIgnoreCase(CONTENT_TYPE_HEADER) && !entry.getValue().isEmpty()) {
+        return entry.getValue().iterator().next();
+      }
+    }
+    val charset = template.requestCharset() == null
+                  ? defaultCharset
+                  : template.requestCharset();
+    return "text/plain; charset=" + charset.name();
   }
 }
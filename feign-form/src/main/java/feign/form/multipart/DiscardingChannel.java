@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import lombok.val;
+
+/**
+ * The channel, which drops everything written to it. A segment is written to it, when its content must
+ * only be read, like by the segment's boundary scanner.
+ *
+ * @author Artem Labazin
+ */
+final class DiscardingChannel implements WritableByteChannel {
+
+  static final DiscardingChannel INSTANCE = new DiscardingChannel();
+
+  private DiscardingChannel () {
+  }
+
+  @Override
+  public int write (ByteBuffer source) {
+    val length = source.remaining();
+    Buffer state = source; // the Java 8 compatible call
+    state.position(state.limit());
+    return length;
+  }
+
+  @Override
+  public boolean isOpen () {
+    return true;
+  }
+
+  @Override
+  public void close () {
+    // nothing to close
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+import feign.form.util.ByteArrayBuilder;
+
+/**
+ * A referenced file, its content is read only when the segment is written. Without a boundary check
+ * the file is transferred to the channel with {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+ * otherwise it is copied through a heap buffer and scanned on the way.
+ *
+ * @author Artem Labazin
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class FileSegment implements Segment {
+
+  File file;
+
+  long length;
+
+  BoundaryScanner scanner;
+
+  @Override
+  public long length () {
+    return length;
+  }
+
+  @Override
+  public void writeTo (WritableByteChannel channel) throws IOException {
+    if (scanner != null) {
+      copyScanning(buffer -> Segment.writeFully(channel, buffer));
+      return;
+    }
+    try (val fileChannel = FileChannel.open(file.toPath(), READ)) {
+      Segment.transferFully(fileChannel, length, channel);
+    }
+  }
+
+  @Override
+  public void writeTo (ByteArrayBuilder builder) throws IOException {
+    if (scanner != null) {
+      copyScanning(builder::append);
+      return;
+    }
+    try (val fileChannel = FileChannel.open(file.toPath(), READ)) {
+      builder.append(fileChannel, (int) length);
+    }
+  }
+
+  private void copyScanning (Segment.BufferConsumer consumer) throws IOException {
+    try (val fileChannel = FileChannel.open(file.toPath(), READ)) {
+      Segment.copyScanning(fileChannel, length, scanner, consumer);
+    }
+  }
+}
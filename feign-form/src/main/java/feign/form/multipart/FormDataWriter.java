@@ -34,6 +34,16 @@ public class FormDataWriter extends AbstractWriter {
     return value instanceof FormData;
   }
 
+  @Override
+  public boolean isCacheable (Class<?> type) {
+    return true;
+  }
+
+  @Override
+  public boolean isSizeable (Object value) {
+    return true;
+  }
+
   @Override
   protected void write (Output output, String key, Object value) throws EncodeException {
     val formData = (FormData) value;
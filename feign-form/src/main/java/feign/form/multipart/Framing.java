@@ -0,0 +1,205 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static feign.form.ContentProcessor.CRLF;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * The multipart framing: boundary delimiters and part headers, encoded in the output's charset.
+ * <p>
+ * The constant sequences (dashes and line breaks) are encoded once per charset, and the header
+ * blocks of the parameter parts are cached by the part's name and content type, so the forms
+ * with repeated field names write their headers with a simple copy. The file parts' headers are
+ * not cached, because the file names are almost always unique.
+ * <p>
+ * Instances are thread safe and cached per charset.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class Framing {
+
+  private static final Map<Charset, Framing> FRAMINGS = new ConcurrentHashMap<>();
+
+  private static final int MAX_CACHED_HEADERS = 512;
+
+  /**
+   * The maximum total length of the name, file name and content type of a cached header.
+   */
+  private static final int MAX_CACHED_HEADER_LENGTH = 256;
+
+  private static final String DEFAULT_FILE_CONTENT_TYPE = "application/octet-stream";
+
+  Charset charset;
+
+  byte[] dashes;
+
+  byte[] lineBreak;
+
+  String parameterContentType;
+
+  Map<HeaderKey, byte[]> headers = new ConcurrentHashMap<>();
+
+  private Framing (Charset charset) {
+    this.charset = charset;
+    dashes = "--".getBytes(charset);
+    lineBreak = CRLF.getBytes(charset);
+    parameterContentType = "text/plain; charset=" + charset.name();
+  }
+
+  /**
+   * Returns the framing for the charset.
+   *
+   * @param charset output charset.
+   *
+   * @return cached framing instance.
+   */
+  public static Framing of (@NonNull Charset charset) {
+    return FRAMINGS.computeIfAbsent(charset, Framing::new);
+  }
+
+  /**
+   * Writes the delimiter line, which opens the next part.
+   *
+   * @param output   output writer.
+   * @param boundary data boundary.
+   */
+  public void writeDelimiter (Output output, String boundary) {
+    output.writeFraming(dashes).writeFraming(boundary).writeFraming(lineBreak);
+  }
+
+  /**
+   * Writes the delimiter line, which closes the whole body.
+   *
+   * @param output   output writer.
+   * @param boundary data boundary.
+   */
+  public void writeCloseDelimiter (Output output, String boundary) {
+    output.writeFraming(dashes).writeFraming(boundary).writeFraming(dashes).writeFraming(lineBreak);
+  }
+
+  /**
+   * Writes the line break, which ends a part's content.
+   *
+   * @param output output writer.
+   */
+  public void writeLineBreak (Output output) {
+    output.writeFraming(lineBreak);
+  }
+
+  /**
+   * Returns the encoded headers of a text parameter part, including the blank line after them.
+   * The returned array must not be modified.
+   *
+   * @param name name of the parameter.
+   *
+   * @return encoded header block.
+   */
+  public byte[] parameterHeader (String name) {
+    return partHeader(name, parameterContentType);
+  }
+
+  /**
+   * Returns the encoded headers of a part with the content type, including the blank line after them.
+   * The returned array must not be modified.
+   *
+   * @param name        name of the part.
+   * @param contentType type of the part's content.
+   *
+   * @return encoded header block.
+   */
+  @SuppressWarnings("PMD.MethodReturnsInternalArray")
+  public byte[] partHeader (String name, String contentType) {
+    return header(new HeaderKey(false, name, null, contentType));
+  }
+
+  /**
+   * Returns the encoded headers of a file part, including the blank line after them.
+   *
+   * @param name        name for piece of data.
+   * @param fileName    file name, may be {@code null}.
+   * @param contentType type of file content. May be the {@code null}, in that case it is {@code application/octet-stream}.
+   *
+   * @return encoded header block.
+   */
+  public byte[] fileHeader (String name, String fileName, String contentType) {
+    return new HeaderKey(true, name, fileName, contentType).render().getBytes(charset);
+  }
+
+  private byte[] header (HeaderKey key) {
+    val cached = headers.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    val result = key.render().getBytes(charset);
+    if (key.length() > MAX_CACHED_HEADER_LENGTH || headers.size() >= MAX_CACHED_HEADERS) {
+      return result;
+    }
+    val previous = headers.putIfAbsent(key, result);
+    return previous == null
+           ? result
+           : previous;
+  }
+
+  @Value
+  private static final class HeaderKey {
+
+    boolean file;
+
+    String name;
+
+    String fileName;
+
+    String contentType;
+
+    int length () {
+      return length(name) + length(fileName) + length(contentType);
+    }
+
+    String render () {
+      val builder = new StringBuilder()
+          .append("Content-Disposition: form-data; name=\"").append(name).append('"');
+      if (fileName != null) {
+        builder.append("; filename=\"").append(fileName).append('"');
+      }
+      val type = contentType == null
+                 ? DEFAULT_FILE_CONTENT_TYPE
+                 : contentType;
+      builder.append(CRLF).append("Content-Type: ").append(type).append(CRLF);
+      if (file) {
+        builder.append("Content-Transfer-Encoding: binary").append(CRLF);
+      }
+      return builder.append(CRLF).toString();
+    }
+
+    private static int length (String string) {
+      return string == null
+             ? 0
+             : string.length();
+    }
+  }
+}
@@ -16,15 +16,19 @@
 
 package feign.form.multipart;
 
+import static feign.form.util.PrimitiveArrays.forEach;
+import static feign.form.util.PrimitiveArrays.isPrimitiveArray;
 import static lombok.AccessLevel.PRIVATE;
 
+import java.lang.reflect.Array;
+
 import lombok.experimental.FieldDefaults;
 import lombok.val;
 
 import feign.codec.EncodeException;
 
 /**
- * A multiple parameters writer.
+ * A multiple parameters writer. The arrays of primitives are written without boxing their elements.
  *
  * @author Artem Labazin
  */
@@ -35,6 +39,9 @@ public class ManyParametersWriter extends AbstractWriter {
 
   @Override
   public boolean isApplicable (Object value) {
+    if (isPrimitiveArray(value)) {
+      return Array.getLength(value) > 0;
+    }
     if (value.getClass().isArray()) {
       Object[] values = (Object[]) value;
       return values.length > 0 && parameterWriter.isApplicable(values[0]);
@@ -47,9 +54,21 @@ public class ManyParametersWriter extends AbstractWriter {
     return iterator.hasNext() && parameterWriter.isApplicable(iterator.next());
   }
 
+  @Override
+  public boolean isCacheable (Class<?> type) {
+    return !type.isArray() && !Iterable.class.isAssignableFrom(type);
+  }
+
+  @Override
+  public boolean isSizeable (Object value) {
+    return true;
+  }
+
   @Override
   public void write (Output output, String boundary, String key, Object value) throws EncodeException {
-    if (value.getClass().isArray()) {
+    if (isPrimitiveArray(value)) {
+      writePrimitives(output, boundary, key, value);
+    } else if (value.getClass().isArray()) {
       val objects = (Object[]) value;
       for (val object : objects) {
         parameterWriter.write(output, boundary, key, object);
@@ -61,4 +80,14 @@ public class ManyParametersWriter extends AbstractWriter {
       }
     }
   }
+
+  private void writePrimitives (Output output, String boundary, String key, Object array) {
+    val framing = Framing.of(output.getCharset());
+    val header = framing.parameterHeader(key);
+    forEach(array, text -> {
+      framing.writeDelimiter(output, boundary);
+      output.writeFraming(header).write(text);
+      framing.writeLineBreak(output);
+    });
+  }
 }
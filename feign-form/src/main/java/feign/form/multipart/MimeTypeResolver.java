@@ -0,0 +1,36 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+/**
+ * A resolver of the files' content types by their names. It is called for every file part
+ * without an explicit content type, so it must be thread safe and fast.
+ *
+ * @author Artem Labazin
+ */
+@FunctionalInterface
+public interface MimeTypeResolver {
+
+  /**
+   * Resolves the content type of the file.
+   *
+   * @param fileName file name, may be {@code null}.
+   *
+   * @return the content type or {@code null}, if it is unknown.
+   */
+  String resolve (String fileName);
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.util.Locale.ROOT;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * The {@link MimeTypeResolver} by the file extensions' table.
+ * <p>
+ * The table is an open addressing hash table of the lowercase extensions, the lookup hashes
+ * the file name's extension in place, so it takes constant time and doesn't allocate anything.
+ * The {@link #getDefault() default} table is loaded once from the {@code mime-types.properties} resource,
+ * it can be extended with the extra types by {@link #with(Map)}.
+ * <p>
+ * Instances are immutable and thread safe.
+ *
+ * @author Artem Labazin
+ */
+@SuppressFBWarnings(value = "SING_SINGLETON_HAS_NONPRIVATE_CONSTRUCTOR", justification = "the custom tables are allowed")
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class MimeTypes implements MimeTypeResolver {
+
+  private static final String RESOURCE = "mime-types.properties";
+
+  private static final int HASH_MULTIPLIER = 31;
+
+  private static final MimeTypes DEFAULT = new MimeTypes(load());
+
+  String[] extensions;
+
+  String[] types;
+
+  int mask;
+
+  Map<String, String> table;
+
+  /**
+   * Constructor with the extension to content type table.
+   *
+   * @param table content types by the file extensions (without dots), the extensions are case insensitive.
+   */
+  public MimeTypes (@NonNull Map<String, String> table) {
+    this.table = new HashMap<>(table.size());
+    for (val entry : table.entrySet()) {
+      this.table.put(entry.getKey().toLowerCase(ROOT), entry.getValue());
+    }
+
+    val capacity = Integer.highestOneBit(Math.max(this.table.size(), 1) * 2) << 1;
+    extensions = new String[capacity];
+    types = new String[capacity];
+    mask = capacity - 1;
+    for (val entry : this.table.entrySet()) {
+      String extension = entry.getKey();
+      int index = hash(extension, 0, extension.length()) & mask;
+      while (extensions[index] != null) {
+        index = index + 1 & mask;
+      }
+      extensions[index] = extension;
+      types[index] = entry.getValue();
+    }
+  }
+
+  /**
+   * Returns the default table of the well-known types.
+   *
+   * @return the default resolver.
+   */
+  public static MimeTypes getDefault () {
+    return DEFAULT;
+  }
+
+  /**
+   * Creates the resolver with this table and the extra types, which override the same extensions of this table.
+   *
+   * @param extra content types by the file extensions (without dots).
+   *
+   * @return new resolver.
+   */
+  public MimeTypes with (@NonNull Map<String, String> extra) {
+    val merged = new HashMap<String, String>(table);
+    for (val entry : extra.entrySet()) {
+      merged.put(entry.getKey().toLowerCase(ROOT), entry.getValue());
+    }
+    return new MimeTypes(merged);
+  }
+
+  @Override
+  public String resolve (String fileName) {
+    if (fileName == null) {
+      return null;
+    }
+    val from = fileName.lastIndexOf('.') + 1;
+    val to = fileName.length();
+    if (from == 0 || from == to) {
+      return null;
+    }
+    int index = hash(fileName, from, to) & mask;
+    while (extensions[index] != null) {
+      val extension = extensions[index];
+      if (extension.length() == to - from && extension.regionMatches(true, 0, fileName, from, to - from)) {
+        return types[index];
+      }
+      index = index + 1 & mask;
+    }
+    return null;
+  }
+
+  private static int hash (String string, int from, int to) {
+    int result = 0;
+    for (int index = from; index < to; index++) {
+      result = HASH_MULTIPLIER * result + Character.toLowerCase(string.charAt(index));
+    }
+    return result ^ result >>> 16;
+  }
+
+  private static Map<String, String> load () {
+    val resource = MimeTypes.class.getResourceAsStream(RESOURCE);
+    if (resource == null) {
+      throw new IllegalStateException("The resource '" + RESOURCE + "' is not found");
+    }
+    val properties = new Properties();
+    try (InputStream stream = resource) {
+      properties.load(stream);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Loading of the default MIME types error", ex);
+    }
+    val result = new HashMap<String, String>(properties.size());
+    for (val name : properties.stringPropertyNames()) {
+      result.put(name, properties.getProperty(name));
+    }
+    return result;
+  }
+}
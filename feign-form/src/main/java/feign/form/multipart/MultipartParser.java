@@ -0,0 +1,498 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+/**
+ * A pull parser of the multipart bodies.
+ * <p>
+ * The parser reads the body from a channel into its own buffer, and looks for the
+ * {@code CRLF--boundary} delimiters with the Boyer-Moore-Horspool search, which skips
+ * up to the delimiter's length on a mismatch, so the large binary parts are scanned
+ * much faster than byte by byte. The part headers are parsed from bytes, when they are requested:
+ * either all of them, see {@link PartHeaders}, or only the name, the filename and the content type,
+ * see {@link PartDescriptor}.
+ * <p>
+ * The parts are read one after another: {@link #nextPart()} skips the unread rest of
+ * the current part and reads the next part's headers, and the part's body is read with
+ * {@link #read(byte[], int, int)}, {@link #read(ByteBuffer)}, {@link #transferTo(OutputStream)}
+ * or {@link #getBodyStream()}. The preamble and the epilogue are ignored.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class MultipartParser implements Closeable {
+
+  private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The maximum size of a part's header block.
+   */
+  private static final int MAX_HEADERS_SIZE = 10 * 1024;
+
+  private static final byte CR = '\r';
+
+  private static final byte LF = '\n';
+
+  private static final byte DASH = '-';
+
+  private static final int ALPHABET_SIZE = 256;
+
+  ReadableByteChannel channel;
+
+  Charset headerCharset;
+
+  /**
+   * The {@code CRLF--boundary} sequence.
+   */
+  byte[] delimiter;
+
+  /**
+   * The Horspool's bad character shifts.
+   */
+  int[] shifts;
+
+  byte[] buffer;
+
+  ByteBuffer window;
+
+  byte[] headerBlock = new byte[MAX_HEADERS_SIZE];
+
+  @NonFinal
+  int position;
+
+  @NonFinal
+  int limit;
+
+  /**
+   * The bytes between the position and the body limit belong to the current part's body.
+   */
+  @NonFinal
+  int bodyLimit;
+
+  /**
+   * Tells, that the delimiter starts at the body limit.
+   */
+  @NonFinal
+  boolean delimiterFound;
+
+  @NonFinal
+  State state;
+
+  @NonFinal
+  int headerLength;
+
+  @NonFinal
+  PartHeaders headers;
+
+  /**
+   * The number of the part, which the parsed headers belong to.
+   */
+  @NonFinal
+  int headersPartNumber;
+
+  @NonFinal
+  int partNumber;
+
+  /**
+   * Constructor with the default buffer size (64 KiB) and UTF-8 headers.
+   *
+   * @param channel  the body's channel.
+   * @param boundary the body's boundary.
+   */
+  public MultipartParser (ReadableByteChannel channel, byte[] boundary) {
+    this(channel, boundary, DEFAULT_BUFFER_SIZE, UTF_8);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param channel       the body's channel.
+   * @param boundary      the body's boundary.
+   * @param bufferSize    the read buffer size, it is increased, if it is too small for the boundary.
+   * @param headerCharset the charset of the header values (like the file names).
+   */
+  public MultipartParser (ReadableByteChannel channel, byte[] boundary, int bufferSize, Charset headerCharset) {
+    if (boundary.length == 0) {
+      throw new IllegalArgumentException("The boundary is empty");
+    }
+    this.channel = channel;
+    this.headerCharset = headerCharset;
+
+    delimiter = new byte[boundary.length + 4];
+    delimiter[0] = CR;
+    delimiter[1] = LF;
+    delimiter[2] = DASH;
+    delimiter[3] = DASH;
+    System.arraycopy(boundary, 0, delimiter, 4, boundary.length);
+
+    shifts = new int[ALPHABET_SIZE];
+    Arrays.fill(shifts, delimiter.length);
+    for (int index = 0; index < delimiter.length - 1; index++) {
+      shifts[delimiter[index] & 0xFF] = delimiter.length - 1 - index;
+    }
+
+    buffer = new byte[Math.max(bufferSize, delimiter.length * 2)];
+    window = ByteBuffer.wrap(buffer);
+    // the first delimiter may have no preceding line break, the virtual one makes it a regular delimiter,
+    // and the preamble is skipped as a body
+    buffer[0] = CR;
+    buffer[1] = LF;
+    limit = 2;
+    state = State.BODY;
+  }
+
+  /**
+   * Skips the unread rest of the current part and reads the next part's headers.
+   *
+   * @return {@code true} if there is the next part, {@code false} if the closing delimiter is reached.
+   *
+   * @throws IOException in case of reading error, or if the body is malformed.
+   */
+  public boolean nextPart () throws IOException {
+    while (state == State.BODY) {
+      val available = available();
+      if (available > 0) {
+        position += available;
+      }
+    }
+    if (state == State.END) {
+      return false;
+    }
+    if (!ensure(2)) {
+      throw new EOFException("Unexpected end of the multipart body after the delimiter");
+    }
+    if (buffer[position] == DASH && buffer[position + 1] == DASH) {
+      state = State.END;
+      return false;
+    }
+    skipDelimiterLineEnd();
+    headerLength = readHeaders();
+    state = State.BODY;
+    bodyLimit = position;
+    delimiterFound = false;
+    partNumber++;
+    return true;
+  }
+
+  /**
+   * Returns the current part's headers.
+   *
+   * @return the headers, or {@code null}, if there is no current part.
+   */
+  public PartHeaders getHeaders () {
+    if (state != State.BODY) {
+      return null;
+    }
+    if (headersPartNumber != partNumber) {
+      headers = PartHeaders.parse(headerBlock, headerLength, headerCharset);
+      headersPartNumber = partNumber;
+    }
+    return headers;
+  }
+
+  /**
+   * Returns the current part's {@code Content-Disposition} name and filename and its {@code Content-Type}.
+   * Unlike {@link #getHeaders()}, the other headers are not parsed.
+   *
+   * @return the descriptor, or {@code null}, if there is no current part.
+   */
+  public PartDescriptor getDescriptor () {
+    return state == State.BODY
+           ? PartDescriptor.parse(headerBlock, headerLength, headerCharset)
+           : null;
+  }
+
+  /**
+   * Reads the next byte of the current part's body.
+   *
+   * @return the byte, or {@code -1} at the end of the body.
+   *
+   * @throws IOException in case of reading error, or if the body is malformed.
+   */
+  public int read () throws IOException {
+    return available() < 0
+           ? -1
+           : buffer[position++] & 0xFF;
+  }
+
+  /**
+   * Reads the current part's body.
+   *
+   * @param bytes  destination array.
+   * @param offset the offset in the array.
+   * @param length the maximum number of bytes to read.
+   *
+   * @return the number of the read bytes, or {@code -1} at the end of the body.
+   *
+   * @throws IOException in case of reading error, or if the body is malformed.
+   */
+  public int read (byte[] bytes, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    val available = available();
+    if (available < 0) {
+      return -1;
+    }
+    val count = Math.min(available, length);
+    System.arraycopy(buffer, position, bytes, offset, count);
+    position += count;
+    return count;
+  }
+
+  /**
+   * Reads the current part's body.
+   *
+   * @param target destination buffer.
+   *
+   * @return the number of the read bytes, or {@code -1} at the end of the body.
+   *
+   * @throws IOException in case of reading error, or if the body is malformed.
+   */
+  public int read (ByteBuffer target) throws IOException {
+    if (!target.hasRemaining()) {
+      return 0;
+    }
+    val available = available();
+    if (available < 0) {
+      return -1;
+    }
+    val count = Math.min(available, target.remaining());
+    target.put(buffer, position, count);
+    position += count;
+    return count;
+  }
+
+  /**
+   * Writes the rest of the current part's body to the stream, directly from the parser's buffer.
+   *
+   * @param stream destination stream.
+   *
+   * @return the number of the written bytes.
+   *
+   * @throws IOException in case of any I/O error, or if the body is malformed.
+   */
+  public long transferTo (OutputStream stream) throws IOException {
+    long total = 0;
+    int available = available();
+    while (available >= 0) {
+      stream.write(buffer, position, available);
+      position += available;
+      total += available;
+      available = available();
+    }
+    return total;
+  }
+
+  /**
+   * Returns the stream of the current part's body. The stream ends, when the
+   * next part is requested, closing the stream doesn't close the parser.
+   *
+   * @return the body's stream.
+   */
+  public InputStream getBodyStream () {
+    return new BodyStream(partNumber);
+  }
+
+  /**
+   * Tells, if the part is the current one.
+   *
+   * @param part the part's number.
+   *
+   * @return {@code true} if the part is the current one.
+   */
+  boolean isCurrent (int part) {
+    return part == partNumber && state == State.BODY;
+  }
+
+  @Override
+  public void close () throws IOException {
+    state = State.END;
+    channel.close();
+  }
+
+  /**
+   * Returns the number of the current body's bytes available in the buffer, the buffer is filled, if it is needed.
+   *
+   * @return the number of the available bytes, or {@code -1} at the end of the body.
+   */
+  private int available () throws IOException {
+    while (state == State.BODY) {
+      if (position < bodyLimit) {
+        return bodyLimit - position;
+      }
+      if (delimiterFound) {
+        position += delimiter.length;
+        delimiterFound = false;
+        state = State.DELIMITER;
+        break;
+      }
+      searchDelimiter();
+      if (position == bodyLimit && !delimiterFound && !fill()) {
+        throw new EOFException("Unexpected end of the multipart body, the closing delimiter is missing");
+      }
+    }
+    return -1;
+  }
+
+  private void searchDelimiter () {
+    val last = delimiter.length - 1;
+    val end = limit - last;
+    int index = position;
+    while (index < end) {
+      int matched = last;
+      while (buffer[index + matched] == delimiter[matched]) {
+        if (matched == 0) {
+          bodyLimit = index;
+          delimiterFound = true;
+          return;
+        }
+        matched--;
+      }
+      index += shifts[buffer[index + last] & 0xFF];
+    }
+    // the delimiter may start in the last bytes, which are kept until the next reading
+    bodyLimit = Math.max(position, end);
+  }
+
+  private void skipDelimiterLineEnd () throws IOException {
+    // the transport padding
+    while (ensure(1) && (buffer[position] == ' ' || buffer[position] == '\t')) {
+      position++;
+    }
+    if (ensure(2) && buffer[position] == CR && buffer[position + 1] == LF) {
+      position += 2;
+    } else if (ensure(1) && buffer[position] == LF) {
+      position++;
+    } else {
+      throw new IOException("Malformed multipart body, the delimiter is not followed by a line break");
+    }
+  }
+
+  private int readHeaders () throws IOException {
+    int length = 0;
+    while (true) {
+      if (position == limit && !fill()) {
+        throw new EOFException("Unexpected end of the multipart body in the part's headers");
+      }
+      val value = buffer[position++];
+      if (value == LF && endsWithEmptyLine(length)) {
+        return length;
+      }
+      if (length == headerBlock.length) {
+        throw new IOException("The part's headers are longer than " + MAX_HEADERS_SIZE + " bytes");
+      }
+      headerBlock[length++] = value;
+    }
+  }
+
+  private boolean endsWithEmptyLine (int length) {
+    // the headers end with an empty line: either there are no headers at all,
+    // or the previous line ends right before the current line break
+    int end = length;
+    if (end > 0 && headerBlock[end - 1] == CR) {
+      end--;
+    }
+    return end == 0 || headerBlock[end - 1] == LF;
+  }
+
+  private boolean ensure (int count) throws IOException {
+    while (limit - position < count) {
+      if (!fill()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Moves the unread bytes to the buffer's beginning and reads more bytes after them.
+   *
+   * @return {@code false} at the end of the channel.
+   */
+  private boolean fill () throws IOException {
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      bodyLimit = Math.max(0, bodyLimit - position);
+      position = 0;
+    }
+    Buffer view = window; // the Java 8 compatible calls
+    view.limit(buffer.length);
+    view.position(limit);
+    int count = 0;
+    while (count == 0) {
+      count = channel.read(window);
+    }
+    if (count < 0) {
+      return false;
+    }
+    limit += count;
+    return true;
+  }
+
+  private enum State {
+
+    BODY,
+
+    DELIMITER,
+
+    END;
+  }
+
+  private final class BodyStream extends InputStream {
+
+    private final int part;
+
+    BodyStream (int part) {
+      super();
+      this.part = part;
+    }
+
+    @Override
+    public int read () throws IOException {
+      return isCurrent(part)
+             ? MultipartParser.this.read()
+             : -1;
+    }
+
+    @Override
+    public int read (byte[] bytes, int offset, int length) throws IOException {
+      return isCurrent(part)
+             ? MultipartParser.this.read(bytes, offset, length)
+             : -1;
+    }
+  }
+}
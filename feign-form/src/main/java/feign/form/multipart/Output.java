@@ -16,32 +16,215 @@
 
 package feign.form.multipart;
 
+import static java.nio.charset.CodingErrorAction.REPLACE;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static lombok.AccessLevel.PRIVATE;
 
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+import feign.codec.EncodeException;
+import feign.form.util.BufferPool;
+import feign.form.util.ByteArrayBuilder;
+import feign.form.util.MemoryBudget;
 
 /**
  * Output representation utility class.
+ * <p>
+ * The output is a rope of segments: views of the output's own buffer with the headers and short values,
+ * references to the large caller's byte arrays (they are not copied, so they must not
+ * be modified until the body is written) and references to files and other content sources. The content is copied
+ * only once - to the destination channel (see {@link #writeTo(WritableByteChannel)}),
+ * or to a contiguous array of the exact size (see {@link #toByteArray()}).
+ * <p>
+ * In <b>streaming</b> mode the output is written directly to a connection's stream
+ * during request sending. Files are transferred with {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+ * so the kernel can send them without copying through the JVM heap, and consecutive byte segments
+ * are written with a single gathering write, if the target channel allows it.
+ * <p>
+ * The buffered output can take its buffer from a {@link BufferPool} (see {@link #Output(Charset, BufferPool)}),
+ * it is returned to the pool on {@link #close()}.
+ * <p>
+ * In <b>sizing</b> mode (see {@link #sizing(Charset)}) the output doesn't keep anything,
+ * it only counts the written bytes, files are counted by their lengths.
+ * <p>
+ * With a {@link #setSpillThreshold(int) spill threshold} the output's own buffer is moved to a temporary
+ * {@link SpillFile} every time it grows to the threshold, so the heap, which the output holds, is bounded
+ * regardless of the body's size (the buffered body is still assembled into a single array by {@link #toByteArray()},
+ * so only the streaming output keeps the bound until the body is sent). The spill file is deleted on {@link #release()}.
+ * <p>
+ * With a shared {@link #setMemoryBudget(MemoryBudget) memory budget} the output reserves its buffer
+ * (and the assembled body) in the budget, while it is encoded. The buffered output returns the reservation
+ * on {@link #close()}, the streaming one holds it until its content is sent and {@link #release() released}.
  *
  * @author Artem Labazin
  */
-@RequiredArgsConstructor
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 public class Output implements Closeable {
 
-  ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+  private static final char ASCII_LIMIT = 0x80;
+
+  private static final char LATIN1_LIMIT = 0x100;
+
+  /**
+   * The byte arrays of this length and longer are referenced, not copied.
+   */
+  private static final int REFERENCE_THRESHOLD = 1024;
+
+  Rope rope;
 
   @Getter
   Charset charset;
 
+  @Getter
+  boolean streaming;
+
+  @Getter
+  boolean sizing;
+
+  /**
+   * The resolver of the file parts' content types, {@link MimeTypes#getDefault()} by default.
+   */
+  @Getter
+  @Setter
+  @NonNull
+  @NonFinal
+  MimeTypeResolver mimeTypeResolver = MimeTypes.getDefault();
+
+  /**
+   * The characters below this limit are written as single bytes, without encoding.
+   */
+  char singleByteLimit;
+
+  @NonFinal
+  CharsetEncoder encoder;
+
+  @NonFinal
+  BoundaryScanner scanner;
+
+  @NonFinal
+  long counted;
+
+  /**
+   * Constructor of the buffered output.
+   *
+   * @param charset output charset
+   */
+  public Output (Charset charset) {
+    this(charset, false);
+  }
+
+  /**
+   * Constructor of the buffered or streaming output.
+   *
+   * @param charset   output charset
+   * @param streaming {@code true} for the streaming output
+   */
+  public Output (Charset charset, boolean streaming) {
+    this(charset, streaming, false, null);
+  }
+
+  /**
+   * Constructor of the buffered output, which takes its chunks from the pool.
+   * The chunks are returned to the pool on {@link #close()}, so the output's content
+   * must be taken by {@link #toByteArray()} before.
+   *
+   * @param charset output charset
+   * @param pool    the pool of arrays, may be {@code null}
+   */
+  public Output (Charset charset, BufferPool pool) {
+    this(charset, false, false, pool);
+  }
+
+  private Output (Charset charset, boolean streaming, boolean sizing, BufferPool pool) {
+    this.charset = charset;
+    this.streaming = streaming;
+    this.sizing = sizing;
+    singleByteLimit = singleByteLimit(charset);
+    rope = new Rope(sizing ? 0 : Rope.CHUNK_SIZE, pool);
+  }
+
+  /**
+   * Creates the output, which only counts the written bytes, without keeping them.
+   *
+   * @param charset output charset
+   *
+   * @return sizing output
+   */
+  public static Output sizing (Charset charset) {
+    return new Output(charset, false, true, null);
+  }
+
+  /**
+   * Returns the size of the output's own buffer, at which it is spilled to a temporary file.
+   *
+   * @return the spill threshold in bytes, {@code 0} by default (spilling is disabled)
+   */
+  public int getSpillThreshold () {
+    return rope.getSpillThreshold();
+  }
+
+  /**
+   * Sets the size of the output's own buffer, at which it is spilled to a temporary file.
+   *
+   * @param spillThreshold the spill threshold in bytes, {@code 0} disables spilling
+   */
+  public void setSpillThreshold (int spillThreshold) {
+    rope.setSpillThreshold(spillThreshold);
+  }
+
+  /**
+   * Returns the shared budget of the encoding memory.
+   *
+   * @return the budget, {@code null} by default (the memory is not limited)
+   */
+  public MemoryBudget getMemoryBudget () {
+    return rope.getMemoryBudget();
+  }
+
+  /**
+   * Sets the shared budget of the encoding memory, the output's buffer capacity is reserved in it, before
+   * the buffer grows. The budget must be set before anything is written.
+   *
+   * @param memoryBudget the budget, may be {@code null} (the memory is not limited)
+   */
+  public void setMemoryBudget (MemoryBudget memoryBudget) {
+    rope.setMemoryBudget(memoryBudget);
+  }
+
+  /**
+   * Presizes the output's own buffer, so it isn't reallocated, while it grows up to the expected size.
+   * The capacity is limited by the {@link #setSpillThreshold(int) spill threshold} and 1 MiB,
+   * and it is reserved in the {@link #setMemoryBudget(MemoryBudget) memory budget} before the allocation - the output is
+   * not presized, if the budget doesn't have the memory. So the limits must be set before presizing.
+   *
+   * @param capacity the expected buffered size in bytes, it is ignored, if it is not positive
+   */
+  public void presize (int capacity) {
+    if (!sizing) {
+      rope.presize(capacity);
+    }
+  }
+
   /**
    * Writes the string to the output.
    *
@@ -50,24 +233,59 @@ public class Output implements Closeable {
    * @return this output
    */
   public Output write (String string) {
-    return write(string.getBytes(charset));
+    return write((CharSequence) string);
   }
 
   /**
-   * Writes the byte array to the output.
+   * Writes the character sequence to the output. The text is encoded directly into the output's
+   * buffer: the ASCII text (and Latin-1 one for ISO-8859-1) is copied char by char, UTF-8 is encoded inline,
+   * and the other charsets are encoded with the output's own {@link CharsetEncoder}.
+   *
+   * @param text text to write to this output
+   *
+   * @return this output
+   */
+  public Output write (CharSequence text) {
+    if (scanner != null) {
+      scanner.scan(text);
+    }
+    return writeText(text);
+  }
+
+  private Output writeText (CharSequence text) {
+    if (sizing) {
+      counted += encodedLength(text);
+      return this;
+    }
+    val length = text.length();
+    val buffer = rope.ensureRoom(length);
+    int index = 0;
+    while (index < length && text.charAt(index) < singleByteLimit) {
+      buffer.append(text.charAt(index++));
+    }
+    if (index < length && UTF_8.equals(charset)) {
+      buffer.appendUtf8(text, index);
+    } else if (index < length) {
+      buffer.append(CharBuffer.wrap(text, index, length), encoder());
+    }
+    rope.checkLimits();
+    return this;
+  }
+
+  /**
+   * Writes the byte array to the output. The large arrays are referenced, not copied.
    *
    * @param bytes byte arrays to write to this output
    *
    * @return this output
    */
-  @SneakyThrows
   public Output write (byte[] bytes) {
-    outputStream.write(bytes);
-    return this;
+    return write(bytes, 0, bytes.length);
   }
 
   /**
    * Writes the byte array to the output with specified offset and fixed length.
+   * The large arrays are referenced, not copied.
    *
    * @param bytes  byte arrays to write to this output
    * @param offset the offset within the array of the first byte to be read. Must be non-negative and no larger than <tt>bytes.length</tt>
@@ -76,21 +294,296 @@ public class Output implements Closeable {
    * @return this output
    */
   public Output write (byte[] bytes, int offset, int length) {
-    outputStream.write(bytes, offset, length);
+    if (scanner != null) {
+      scanner.scan(bytes, offset, length);
+    }
+    return writeBytes(bytes, offset, length);
+  }
+
+  /**
+   * Copies the byte to the output, it is used by the {@link #asStream() stream} view.
+   *
+   * @param value the byte
+   */
+  void copy (byte value) {
+    if (scanner != null) {
+      scanner.scan(value);
+    }
+    if (sizing) {
+      counted++;
+    } else {
+      rope.ensureRoom(1).append(value);
+      rope.checkLimits();
+    }
+  }
+
+  /**
+   * Copies the bytes to the output, it is used by the {@link #asStream() stream} view.
+   *
+   * @param bytes  the bytes
+   * @param offset the offset of the first byte to copy
+   * @param length the number of bytes to copy
+   */
+  void copy (byte[] bytes, int offset, int length) {
+    if (scanner != null) {
+      scanner.scan(bytes, offset, length);
+    }
+    if (sizing) {
+      counted += length;
+    } else {
+      rope.ensureRoom(length).append(bytes, offset, length);
+      rope.checkLimits();
+    }
+  }
+
+  private Output writeBytes (byte[] bytes, int offset, int length) {
+    if (sizing) {
+      counted += length;
+    } else if (length < REFERENCE_THRESHOLD) {
+      rope.ensureRoom(length).append(bytes, offset, length);
+      rope.checkLimits();
+    } else {
+      rope.add(new BytesSegment(ByteBuffer.wrap(bytes, offset, length), false));
+    }
+    return this;
+  }
+
+  /**
+   * Returns the stream, which writes to this output. Unlike {@link #write(byte[])},
+   * the stream always copies the written bytes, so the caller may reuse its arrays.
+   * Closing the stream doesn't close this output.
+   *
+   * @return stream view of this output
+   */
+  public OutputStream asStream () {
+    return new OutputStream() {
+
+      @Override
+      public void write (int value) {
+        copy((byte) value);
+      }
+
+      @Override
+      public void write (byte[] bytes, int offset, int length) {
+        copy(bytes, offset, length);
+      }
+    };
+  }
+
+  /**
+   * Writes the file's content to the output. The file is only referenced, its content
+   * is read during {@link #writeTo(WritableByteChannel)} or {@link #toByteArray()} call.
+   *
+   * @param file file to write to this output
+   *
+   * @return this output
+   *
+   * @throws IOException in case of file reading error
+   */
+  public Output write (File file) throws IOException {
+    val length = file.length();
+    if (sizing) {
+      counted += length;
+    } else if (streaming && scanner != null) {
+      new FileSegment(file, length, scanner.copy()).writeTo(DiscardingChannel.INSTANCE);
+      rope.add(new FileSegment(file, length, null));
+    } else {
+      rope.add(new FileSegment(file, length, scanner == null ? null : scanner.copy()));
+    }
+    return this;
+  }
+
+  /**
+   * Writes the content of the source to the output. The source is only referenced, its stream
+   * is opened and read during {@link #writeTo(WritableByteChannel)} or {@link #toByteArray()} call,
+   * so the content is never held in the heap as a whole.
+   *
+   * @param source the content source
+   * @param length the exact content's length in bytes
+   *
+   * @return this output
+   */
+  public Output write (ContentSource source, long length) {
+    if (sizing) {
+      counted += length;
+    } else if (streaming && scanner != null) {
+      if (!source.isRepeatable()) {
+        throw new EncodeException("The boundary check of a streaming body reads the content twice, "
+                                  + "a one-shot content source can't be checked");
+      }
+      try {
+        new StreamSegment(source, length, scanner.copy()).writeTo(DiscardingChannel.INSTANCE);
+      } catch (IOException ex) {
+        throw new EncodeException("Content source reading error", ex);
+      }
+      rope.add(new StreamSegment(source, length, null));
+    } else {
+      rope.add(new StreamSegment(source, length, scanner == null ? null : scanner.copy()));
+    }
     return this;
   }
 
   /**
-   * Returns byte array representation of this output class.
+   * Enables the check, that the boundary doesn't occur in the parts' content.
+   * The byte arrays and the text are checked as they are written, the files and the content sources are
+   * checked while they are read during {@link #toByteArray()} call (so they are copied through the heap,
+   * instead of the zero-copy transfer). The streaming output is sent after its headers, when a collision
+   * can't be reported anymore, so its files and content sources are read and checked, when they are written
+   * to the output, and read once more, when the output is sent (a one-shot {@link ContentSource} is refused).
+   * A {@link BoundaryCollisionException} is thrown, if the boundary is found.
+   *
+   * @param boundary the body's boundary
+   */
+  public void checkBoundary (String boundary) {
+    scanner = new BoundaryScanner(boundary);
+  }
+
+  /**
+   * Writes the multipart framing (delimiters and part headers), it is not checked for the boundary.
+   *
+   * @param bytes the encoded framing
+   *
+   * @return this output
+   */
+  Output writeFraming (byte[] bytes) {
+    if (scanner != null) {
+      scanner.reset();
+    }
+    return writeBytes(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Writes the multipart framing (delimiters and part headers), it is not checked for the boundary.
+   *
+   * @param text the framing
+   *
+   * @return this output
+   */
+  Output writeFraming (CharSequence text) {
+    if (scanner != null) {
+      scanner.reset();
+    }
+    return writeText(text);
+  }
+
+  /**
+   * Returns the exact number of bytes, which this output contains
+   * (including referenced, but not read yet files, and all counted
+   * bytes in sizing mode).
+   *
+   * @return the output's size in bytes
+   */
+  public long size () {
+    return rope.size() + counted;
+  }
+
+  /**
+   * Returns the number of bytes, which were copied to the output's own buffer
+   * (the headers and the short values), the referenced arrays and files are not counted.
+   *
+   * @return the buffered size in bytes
+   */
+  public int getBufferedSize () {
+    return rope.getBufferedSize();
+  }
+
+  /**
+   * Writes the whole output's content to the specified stream.
+   *
+   * @param stream destination stream
+   *
+   * @throws IOException in case of any I/O error
+   */
+  public void writeTo (OutputStream stream) throws IOException {
+    writeTo(Channels.newChannel(stream));
+  }
+
+  /**
+   * Writes the whole output's content to the specified channel. Files are transferred
+   * with zero-copy and consecutive byte segments are written with one gathering write,
+   * if it is supported by the channel (like socket or file channels).
+   *
+   * @param channel destination channel
+   *
+   * @throws IOException in case of any I/O error
+   */
+  public void writeTo (WritableByteChannel channel) throws IOException {
+    checkNotSizing();
+    rope.writeTo(channel);
+  }
+
+  /**
+   * Returns byte array representation of this output class. All segments
+   * are copied into a single array of the exact size.
    *
    * @return byte array representation of output
    */
+  @SneakyThrows
   public byte[] toByteArray () {
-    return outputStream.toByteArray();
+    checkNotSizing();
+    return rope.toByteArray();
   }
 
+  /**
+   * Releases the buffered output, see {@link #release()}. The streaming output's content is written
+   * after the closing, so it is released by {@link feign.form.StreamingResponseInterceptor}, when its request is
+   * not retried anymore, and its memory
+   * reservation is held till then.
+   *
+   * @throws IOException in case of the spill file closing error
+   */
   @Override
   public void close () throws IOException {
-    outputStream.close();
+    if (streaming) {
+      rope.holdReservation();
+    } else {
+      release();
+    }
+  }
+
+  /**
+   * Returns the memory reservation to the budget, deletes the spill file and returns the buffer to the pool.
+   * The output's content must not be used after that.
+   *
+   * @throws IOException in case of the spill file closing error
+   */
+  public void release () throws IOException {
+    rope.release();
+  }
+
+  private void checkNotSizing () {
+    if (sizing) {
+      throw new IllegalStateException("Sizing output doesn't have any content");
+    }
+  }
+
+  private CharsetEncoder encoder () {
+    if (encoder == null) {
+      encoder = charset.newEncoder()
+          .onMalformedInput(REPLACE)
+          .onUnmappableCharacter(REPLACE);
+    }
+    return encoder;
+  }
+
+  private long encodedLength (CharSequence text) {
+    if (UTF_8.equals(charset)) {
+      return ByteArrayBuilder.utf8Length(text);
+    }
+    if (ISO_8859_1.equals(charset) || US_ASCII.equals(charset)) {
+      // a surrogate pair is replaced with a single '?'
+      return Character.codePointCount(text, 0, text.length());
+    }
+    return text.toString().getBytes(charset).length;
+  }
+
+  private static char singleByteLimit (Charset charset) {
+    if (ISO_8859_1.equals(charset)) {
+      return LATIN1_LIMIT;
+    }
+    if (UTF_8.equals(charset) || US_ASCII.equals(charset)) {
+      return ASCII_LIMIT;
+    }
+    return 0;
   }
 }
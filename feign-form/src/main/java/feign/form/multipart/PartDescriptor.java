@@ -0,0 +1,266 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.nio.charset.Charset;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The part's {@code Content-Disposition} name and filename and its {@code Content-Type},
+ * which are read by {@link MultipartParser} without parsing the rest of the headers.
+ * <p>
+ * The header block is tokenized in a single pass over its bytes: the header and parameter names
+ * are compared case-insensitively in place, and only the extracted values are decoded into strings.
+ *
+ * @author Artem Labazin
+ */
+@Getter
+@AllArgsConstructor(access = PRIVATE)
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class PartDescriptor {
+
+  private static final byte[] CONTENT_DISPOSITION = ascii("content-disposition");
+
+  private static final byte[] CONTENT_TYPE = ascii("content-type");
+
+  private static final byte[] FORM_DATA = ascii("form-data");
+
+  private static final byte[] NAME = ascii("name");
+
+  private static final byte[] FILENAME = ascii("filename");
+
+  private static final byte LF = '\n';
+
+  private static final byte COLON = ':';
+
+  private static final byte SEMICOLON = ';';
+
+  private static final byte EQUALS = '=';
+
+  private static final byte QUOTE = '"';
+
+  private static final byte APOSTROPHE = '\'';
+
+  private static final byte BACKSLASH = '\\';
+
+  /**
+   * Tells, that the part has the {@code Content-Disposition: form-data} header.
+   */
+  boolean formData;
+
+  /**
+   * The {@code name} parameter of the {@code Content-Disposition} header, or {@code null}.
+   */
+  String name;
+
+  /**
+   * The {@code filename} parameter of the {@code Content-Disposition} header, or {@code null}.
+   */
+  String filename;
+
+  /**
+   * The {@code Content-Type} header, or {@code null}.
+   */
+  String contentType;
+
+  /**
+   * Tokenizes the header block. The lines may be separated by CRLF or by LF only,
+   * the folded lines are continuations of the previous header.
+   *
+   * @param bytes   the header block, without the empty line, which ends it.
+   * @param length  the length of the header block.
+   * @param charset the charset of the header values (like the file names).
+   *
+   * @return the part's descriptor.
+   */
+  static PartDescriptor parse (byte[] bytes, int length, Charset charset) {
+    int dispositionStart = -1;
+    int dispositionEnd = -1;
+    String contentType = null;
+
+    int start = 0;
+    while (start < length) {
+      int end = headerEnd(bytes, start, length);
+      int colon = indexOf(bytes, COLON, start, end);
+      if (colon < end) {
+        int nameEnd = trimEnd(bytes, start, colon);
+        if (dispositionStart < 0 && equalsIgnoreCase(bytes, start, nameEnd, CONTENT_DISPOSITION)) {
+          dispositionStart = colon + 1;
+          dispositionEnd = end;
+        } else if (contentType == null && equalsIgnoreCase(bytes, start, nameEnd, CONTENT_TYPE)) {
+          contentType = decode(bytes, colon + 1, end, charset);
+        }
+      }
+      start = end + 1;
+    }
+
+    if (dispositionStart < 0) {
+      return new PartDescriptor(false, null, null, contentType);
+    }
+    return parseDisposition(bytes, dispositionStart, dispositionEnd, charset, contentType);
+  }
+
+  private static PartDescriptor parseDisposition (byte[] bytes, int from, int to, Charset charset,
+                                                  String contentType
+  ) {
+    int typeStart = skipWhitespaces(bytes, from, to);
+    int typeEnd = indexOf(bytes, SEMICOLON, typeStart, to);
+    boolean formData = equalsIgnoreCase(bytes, typeStart, trimEnd(bytes, typeStart, typeEnd), FORM_DATA);
+
+    String name = null;
+    String filename = null;
+    int index = typeEnd;
+    while (index < to) {
+      // index is at the semicolon before a parameter
+      int keyStart = skipWhitespaces(bytes, index + 1, to);
+      int equals = indexOfEither(bytes, EQUALS, SEMICOLON, keyStart, to);
+      int keyEnd = trimEnd(bytes, keyStart, equals);
+      if (equals == to || bytes[equals] == SEMICOLON) {
+        index = equals;
+        continue;
+      }
+      int valueStart = skipWhitespaces(bytes, equals + 1, to);
+      int valueEnd = valueStart < to && bytes[valueStart] == QUOTE
+                     ? closingQuote(bytes, valueStart + 1, to)
+                     : indexOf(bytes, SEMICOLON, valueStart, to);
+      if (name == null && equalsIgnoreCase(bytes, keyStart, keyEnd, NAME)) {
+        name = value(bytes, valueStart, valueEnd, charset);
+      } else if (filename == null && equalsIgnoreCase(bytes, keyStart, keyEnd, FILENAME)) {
+        filename = value(bytes, valueStart, valueEnd, charset);
+      }
+      index = indexOf(bytes, SEMICOLON, valueEnd, to);
+    }
+    return new PartDescriptor(formData, name, filename, contentType);
+  }
+
+  /**
+   * Returns the end of the header, which starts at the position: the line break,
+   * which is not followed by a folded line, or the block's end.
+   */
+  private static int headerEnd (byte[] bytes, int from, int to) {
+    int end = indexOf(bytes, LF, from, to);
+    while (end + 1 < to && isWhitespace(bytes[end + 1])) {
+      end = indexOf(bytes, LF, end + 1, to);
+    }
+    return end;
+  }
+
+  /**
+   * Returns the position of the closing quote (or the end), the escaped quotes are skipped.
+   */
+  private static int closingQuote (byte[] bytes, int from, int to) {
+    int index = from;
+    while (index < to && bytes[index] != QUOTE) {
+      index += bytes[index] == BACKSLASH
+               ? 2
+               : 1;
+    }
+    return Math.min(index + 1, to);
+  }
+
+  private static String value (byte[] bytes, int from, int to, Charset charset) {
+    int end = trimEnd(bytes, from, to);
+    if (end - from < 2 || bytes[from] != bytes[end - 1] || bytes[from] != QUOTE && bytes[from] != APOSTROPHE) {
+      return decode(bytes, from, end, charset);
+    }
+    if (bytes[from] == APOSTROPHE || indexOf(bytes, BACKSLASH, from + 1, end - 1) == end - 1) {
+      return new String(bytes, from + 1, end - from - 2, charset);
+    }
+    // only a quoted value with the escapes needs a copy
+    byte[] unescaped = new byte[end - from - 2];
+    int length = 0;
+    int index = from + 1;
+    while (index < end - 1) {
+      if (bytes[index] == BACKSLASH && index + 2 < end) {
+        index++;
+      }
+      unescaped[length++] = bytes[index++];
+    }
+    return new String(unescaped, 0, length, charset);
+  }
+
+  private static String decode (byte[] bytes, int from, int to, Charset charset) {
+    int start = skipWhitespaces(bytes, from, to);
+    return new String(bytes, start, trimEnd(bytes, start, to) - start, charset);
+  }
+
+  /**
+   * Compares the bytes with the lower case ASCII name, the upper case ASCII letters
+   * of the bytes are compared as the lower case ones, nothing is copied.
+   */
+  private static boolean equalsIgnoreCase (byte[] bytes, int from, int to, byte[] lowerCaseName) {
+    if (to - from != lowerCaseName.length) {
+      return false;
+    }
+    for (int index = 0; index < lowerCaseName.length; index++) {
+      int value = bytes[from + index];
+      if (value >= 'A' && value <= 'Z') {
+        value += 'a' - 'A';
+      }
+      if (value != lowerCaseName[index]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int indexOf (byte[] bytes, byte value, int from, int to) {
+    int index = from;
+    while (index < to && bytes[index] != value) {
+      index++;
+    }
+    return index;
+  }
+
+  private static int indexOfEither (byte[] bytes, byte first, byte second, int from, int to) {
+    int index = from;
+    while (index < to && bytes[index] != first && bytes[index] != second) {
+      index++;
+    }
+    return index;
+  }
+
+  private static int skipWhitespaces (byte[] bytes, int from, int to) {
+    int index = from;
+    while (index < to && isWhitespace(bytes[index])) {
+      index++;
+    }
+    return index;
+  }
+
+  private static int trimEnd (byte[] bytes, int from, int to) {
+    int end = to;
+    while (end > from && isWhitespace(bytes[end - 1])) {
+      end--;
+    }
+    return end;
+  }
+
+  private static boolean isWhitespace (byte value) {
+    return value == ' ' || value == '\t' || value == '\r' || value == '\n';
+  }
+
+  private static byte[] ascii (String name) {
+    return name.getBytes(US_ASCII);
+  }
+}
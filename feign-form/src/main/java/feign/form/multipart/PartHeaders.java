@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The headers of a part, which is read by {@link MultipartParser}.
+ * The header names are compared case-insensitively.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class PartHeaders {
+
+  private static final byte CR = '\r';
+
+  private static final byte LF = '\n';
+
+  private static final byte COLON = ':';
+
+  List<String> names;
+
+  List<String> values;
+
+  private PartHeaders (List<String> names, List<String> values) {
+    this.names = names;
+    this.values = values;
+  }
+
+  /**
+   * Parses the header block. The lines may be separated by CRLF or by LF only,
+   * the folded lines are joined, the lines without colon are ignored.
+   *
+   * @param bytes   the header block, without the empty line, which ends it.
+   * @param length  the length of the header block.
+   * @param charset the charset of the header values (the names are always ASCII).
+   *
+   * @return parsed headers.
+   */
+  static PartHeaders parse (byte[] bytes, int length, Charset charset) {
+    List<String> names = new ArrayList<>(4);
+    List<String> values = new ArrayList<>(4);
+    int start = 0;
+    while (start < length) {
+      int end = indexOf(bytes, LF, start, length);
+      int lineEnd = end > start && bytes[end - 1] == CR
+                    ? end - 1
+                    : end;
+      addLine(bytes, start, lineEnd, charset, names, values);
+      start = end + 1;
+    }
+    return new PartHeaders(names, values);
+  }
+
+  /**
+   * Returns the value of the first header with the name.
+   *
+   * @param name header name, case-insensitive.
+   *
+   * @return header value or {@code null}, if there is no such header.
+   */
+  public String get (String name) {
+    for (int index = 0; index < names.size(); index++) {
+      if (names.get(index).equalsIgnoreCase(name)) {
+        return values.get(index);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the number of the headers.
+   *
+   * @return number of the headers.
+   */
+  public int size () {
+    return names.size();
+  }
+
+  /**
+   * Returns the name of the header in the position.
+   *
+   * @param index header position.
+   *
+   * @return header name as is.
+   */
+  public String getName (int index) {
+    return names.get(index);
+  }
+
+  /**
+   * Returns the value of the header in the position.
+   *
+   * @param index header position.
+   *
+   * @return header value without the surrounding whitespaces.
+   */
+  public String getValue (int index) {
+    return values.get(index);
+  }
+
+  private static void addLine (byte[] bytes, int start, int end, Charset charset,
+                               List<String> names, List<String> values
+  ) {
+    if (start == end) {
+      return;
+    }
+    if (isWhitespace(bytes[start]) && !values.isEmpty()) {
+      int last = values.size() - 1;
+      values.set(last, values.get(last) + ' ' + decode(bytes, start, end, charset));
+      return;
+    }
+    int colon = indexOf(bytes, COLON, start, end);
+    if (colon < end) {
+      names.add(decode(bytes, start, colon, US_ASCII));
+      values.add(decode(bytes, colon + 1, end, charset));
+    }
+  }
+
+  private static int indexOf (byte[] bytes, byte value, int from, int to) {
+    int index = from;
+    while (index < to && bytes[index] != value) {
+      index++;
+    }
+    return index;
+  }
+
+  private static String decode (byte[] bytes, int from, int to, Charset charset) {
+    int start = from;
+    int end = to;
+    while (start < end && isWhitespace(bytes[start])) {
+      start++;
+    }
+    while (end > start && isWhitespace(bytes[end - 1])) {
+      end--;
+    }
+    return new String(bytes, start, end - start, charset);
+  }
+
+  private static boolean isWhitespace (byte value) {
+    return value == ' ' || value == '\t';
+  }
+}
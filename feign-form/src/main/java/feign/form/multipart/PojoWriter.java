@@ -42,6 +42,23 @@ public class PojoWriter extends AbstractWriter {
     return isUserPojo(object);
   }
 
+  @Override
+  public boolean isCacheable (Class<?> type) {
+    return true;
+  }
+
+  @Override
+  public boolean isSizeable (Object object) {
+    val map = toMap(object);
+    for (val value : map.values()) {
+      val writer = findApplicableWriter(value);
+      if (writer != null && !writer.isSizeable(value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public void write (Output output, String boundary, String key, Object object) throws EncodeException {
     val map = toMap(object);
@@ -56,6 +73,9 @@ public class PojoWriter extends AbstractWriter {
   }
 
   private Writer findApplicableWriter (Object value) {
+    if (writers instanceof WriterChain) {
+      return ((WriterChain) writers).find(value);
+    }
     for (val writer : writers) {
       if (writer.isApplicable(value)) {
         return writer;
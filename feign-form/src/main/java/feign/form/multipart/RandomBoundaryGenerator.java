@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.val;
+
+/**
+ * The default {@link BoundaryGenerator}, it generates 32 hexadecimal digits (128 random bits)
+ * from the {@link ThreadLocalRandom}, so concurrent threads don't contend for a shared random generator.
+ *
+ * @author Artem Labazin
+ */
+public final class RandomBoundaryGenerator implements BoundaryGenerator {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private static final int DIGITS_PER_LONG = 16;
+
+  private static final int BITS_PER_DIGIT = 4;
+
+  @Override
+  public String generate () {
+    val random = ThreadLocalRandom.current();
+    char[] result = new char[DIGITS_PER_LONG * 2];
+    fill(result, 0, random.nextLong());
+    fill(result, DIGITS_PER_LONG, random.nextLong());
+    return new String(result);
+  }
+
+  private static void fill (char[] destination, int offset, long bits) {
+    long remaining = bits;
+    for (int index = offset + DIGITS_PER_LONG - 1; index >= offset; index--) {
+      destination[index] = HEX[(int) remaining & 0xF];
+      remaining >>>= BITS_PER_DIGIT;
+    }
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+import feign.codec.EncodeException;
+import feign.form.util.BufferPool;
+import feign.form.util.ByteArrayBuilder;
+import feign.form.util.MemoryBudget;
+import feign.form.util.MemoryReservation;
+import feign.form.util.ResourceReaper;
+
+/**
+ * The content of an {@link Output}: the segments and the output's own growing buffer, the recent bytes
+ * of which are not a segment yet.
+ * <p>
+ * The rope keeps the buffer's memory bounded: with a spill threshold the buffer is moved to a temporary
+ * {@link SpillFile} every time it grows to the threshold, and with a {@link MemoryBudget} the buffer's capacity
+ * is reserved, before the buffer grows.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class Rope {
+
+  static final int CHUNK_SIZE = 1024;
+
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  /**
+   * The maximum presized capacity, see {@link #presize(int)}.
+   */
+  private static final int MAX_PRESIZE = 1024 * 1024;
+
+  List<Segment> segments = new ArrayList<>();
+
+  ByteArrayBuilder chunk;
+
+  boolean pooled;
+
+  @Getter
+  @Setter
+  @NonFinal
+  int spillThreshold;
+
+  @Getter
+  @NonFinal
+  MemoryBudget memoryBudget;
+
+  @NonFinal
+  MemoryReservation reservation = new MemoryReservation(null);
+
+  /**
+   * The reservation, which is held after the closing of the streaming output, till the rope is released
+   * or garbage collected.
+   */
+  @NonFinal
+  ResourceReaper.Registration heldReservation;
+
+  @NonFinal
+  SpillFile spill;
+
+  /**
+   * The number of the leading segments, which don't hold the buffer's views.
+   */
+  @NonFinal
+  int spilledSegments;
+
+  @NonFinal
+  int chunkStart;
+
+  Rope (int capacity, BufferPool pool) {
+    chunk = new ByteArrayBuilder(capacity, pool);
+    pooled = pool != null;
+  }
+
+  void setMemoryBudget (MemoryBudget memoryBudget) {
+    reservation.release();
+    this.memoryBudget = memoryBudget;
+    reservation = new MemoryReservation(memoryBudget);
+  }
+
+  void presize (int capacity) {
+    int limited = Math.min(capacity, MAX_PRESIZE);
+    if (spillThreshold > 0) {
+      limited = Math.min(limited, spillThreshold);
+    }
+    if (limited <= CHUNK_SIZE || chunk.length() > 0) {
+      return;
+    }
+    if (reservation.tryCover(limited)) {
+      chunk.ensureCapacity(limited);
+    }
+  }
+
+  /**
+   * Reserves the buffer's capacity, before it grows for the bytes, which are about to be appended.
+   * The bytes are appended directly to the returned buffer, then {@link #checkLimits()} must be called.
+   */
+  ByteArrayBuilder ensureRoom (int count) {
+    val grown = chunk.grownCapacity(chunk.length() + count);
+    if (grown > reservation.getReserved()) {
+      reserve(grown);
+    }
+    chunk.ensureCapacity(chunk.length() + count);
+    return chunk;
+  }
+
+  void checkLimits () {
+    if (spillThreshold > 0 && chunk.length() >= spillThreshold) {
+      spill();
+    }
+    // the pool or the encoding could grow the buffer over the reserved capacity
+    if (chunk.capacity() > reservation.getReserved()) {
+      reserve(chunk.capacity());
+    }
+  }
+
+  void add (Segment segment) {
+    flushChunk();
+    segments.add(segment);
+  }
+
+  long size () {
+    long result = chunk.length() - chunkStart;
+    for (val segment : segments) {
+      result += segment.length();
+    }
+    return result;
+  }
+
+  int getBufferedSize () {
+    return chunk.length();
+  }
+
+  void writeTo (WritableByteChannel channel) throws IOException {
+    flushChunk();
+    List<ByteBuffer> pending = new ArrayList<>(segments.size());
+    for (val segment : segments) {
+      if (segment instanceof BytesSegment) {
+        pending.add(((BytesSegment) segment).view());
+        continue;
+      }
+      writeGathering(channel, pending);
+      pending.clear();
+      segment.writeTo(channel);
+    }
+    writeGathering(channel, pending);
+  }
+
+  byte[] toByteArray () throws IOException {
+    val size = size();
+    if (size > MAX_ARRAY_SIZE) {
+      throw new IOException("The body is too big for the buffered output: " + size + " bytes");
+    }
+    // the assembled body can't be spilled
+    reservation.cover(reservation.getReserved() + size);
+    if (segments.isEmpty()) {
+      return chunk.toByteArray();
+    }
+    flushChunk();
+    val result = new ByteArrayBuilder((int) size);
+    for (val segment : segments) {
+      segment.writeTo(result);
+    }
+    return result.toByteArray();
+  }
+
+  /**
+   * Holds the memory reservation after the rope's owner is closed, till the rope is released.
+   */
+  void holdReservation () {
+    if (reservation.getReserved() > 0 && heldReservation == null) {
+      heldReservation = ResourceReaper.register(this, reservation.detach());
+    }
+  }
+
+  void release () throws IOException {
+    if (heldReservation != null) {
+      heldReservation.close();
+    }
+    reservation.release();
+    if (spill != null) {
+      spill.close();
+    }
+    if (!pooled) {
+      return;
+    }
+    // the segments hold the only views of the buffer
+    segments.clear();
+    chunk.recycle();
+  }
+
+  private void flushChunk () {
+    if (chunk.length() == chunkStart) {
+      return;
+    }
+    segments.add(new BytesSegment(chunk.toByteBuffer(chunkStart), true));
+    chunkStart = chunk.length();
+  }
+
+  private void reserve (int capacity) {
+    if (reservation.tryCover(capacity)) {
+      return;
+    }
+    if (memoryBudget != null && memoryBudget.getOverflow() == MemoryBudget.Overflow.SPILL) {
+      spill();
+    } else {
+      reservation.cover(capacity);
+    }
+  }
+
+  private void spill () {
+    try {
+      spillSegments();
+    } catch (IOException ex) {
+      throw new EncodeException("Multipart body spilling error", ex);
+    }
+    // all views of the buffer are replaced, so it can be reused
+    chunk.recycle();
+    chunk.ensureCapacity(CHUNK_SIZE);
+    chunkStart = 0;
+    reservation.release();
+  }
+
+  private void spillSegments () throws IOException {
+    if (spill == null) {
+      spill = SpillFile.create();
+    }
+    flushChunk();
+    for (int index = spilledSegments; index < segments.size(); index++) {
+      val segment = segments.get(index);
+      if (!(segment instanceof BytesSegment) || !((BytesSegment) segment).isOwned()) {
+        continue;
+      }
+      val bytes = ((BytesSegment) segment).view();
+      val length = bytes.remaining();
+      segments.set(index, new SpillSegment(spill, spill.append(bytes), length));
+    }
+    spilledSegments = segments.size();
+  }
+
+  private static void writeGathering (WritableByteChannel channel, List<ByteBuffer> buffers) throws IOException {
+    if (buffers.isEmpty()) {
+      return;
+    }
+    if (!(channel instanceof GatheringByteChannel)) {
+      for (val buffer : buffers) {
+        Segment.writeFully(channel, buffer);
+      }
+      return;
+    }
+    val gathering = (GatheringByteChannel) channel;
+    val array = buffers.toArray(new ByteBuffer[0]);
+    val last = array[array.length - 1];
+    while (last.hasRemaining()) {
+      gathering.write(array);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import lombok.val;
+
+import feign.form.util.ByteArrayBuilder;
+
+/**
+ * A piece of the {@link Output}'s content.
+ *
+ * @author Artem Labazin
+ */
+interface Segment {
+
+  /**
+   * The size of the heap buffer for the copied content.
+   */
+  int COPY_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Returns the segment's size in bytes.
+   *
+   * @return the segment's size.
+   */
+  long length ();
+
+  /**
+   * Writes the whole segment to the channel.
+   *
+   * @param channel destination channel.
+   *
+   * @throws IOException in case of any I/O error.
+   */
+  void writeTo (WritableByteChannel channel) throws IOException;
+
+  /**
+   * Appends the whole segment to the builder.
+   *
+   * @param builder destination builder.
+   *
+   * @throws IOException in case of any I/O error.
+   */
+  void writeTo (ByteArrayBuilder builder) throws IOException;
+
+  /**
+   * Writes all remaining bytes of the buffer to the channel.
+   *
+   * @param channel destination channel.
+   * @param buffer  bytes to write.
+   *
+   * @throws IOException in case of any I/O error.
+   */
+  static void writeFully (WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Transfers exactly the specified number of bytes from the file's current position to the channel
+   * with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, so the kernel can send them
+   * without copying through the JVM heap.
+   *
+   * @param source  source file channel.
+   * @param length  the number of bytes to transfer.
+   * @param channel destination channel.
+   *
+   * @throws IOException in case of any I/O error, or if the file has less bytes than expected.
+   */
+  static void transferFully (FileChannel source, long length, WritableByteChannel channel) throws IOException {
+    val start = source.position();
+    long transferred = 0;
+    while (transferred < length) {
+      val count = source.transferTo(start + transferred, length - transferred, channel);
+      if (count <= 0) {
+        throw new EOFException("Unexpected end of file, " + (length - transferred) + " more bytes expected");
+      }
+      transferred += count;
+    }
+  }
+
+  /**
+   * Returns the channel of the stream: the file stream's own channel, which supports the zero-copy transfer,
+   * or a channel, which reads the stream.
+   *
+   * @param stream the source stream.
+   *
+   * @return the stream's channel.
+   */
+  static ReadableByteChannel channel (InputStream stream) {
+    return stream instanceof FileInputStream
+           ? ((FileInputStream) stream).getChannel()
+           : Channels.newChannel(stream);
+  }
+
+  /**
+   * Copies exactly the specified number of bytes from the channel through a heap buffer,
+   * the bytes are scanned for the boundary on the way.
+   *
+   * @param source   source channel.
+   * @param length   the number of bytes to copy.
+   * @param scanner  the boundary scanner, may be {@code null}.
+   * @param consumer the consumer of the copied bytes.
+   *
+   * @throws IOException in case of any I/O error, or if the source has less bytes than expected.
+   */
+  static void copyScanning (ReadableByteChannel source, long length, BoundaryScanner scanner,
+                            BufferConsumer consumer
+  ) throws IOException {
+    if (scanner != null) {
+      scanner.reset();
+    }
+    val buffer = ByteBuffer.allocate((int) Math.min(length, COPY_BUFFER_SIZE));
+    Buffer state = buffer; // the Java 8 compatible calls
+    long remaining = length;
+    while (remaining > 0) {
+      state.clear();
+      state.limit((int) Math.min(remaining, buffer.capacity()));
+      if (source.read(buffer) < 0) {
+        throw new EOFException("Unexpected end of the content, " + remaining + " more bytes expected");
+      }
+      state.flip();
+      remaining -= buffer.remaining();
+      if (scanner != null) {
+        scanner.scan(buffer);
+      }
+      consumer.accept(buffer);
+    }
+  }
+
+  /**
+   * The consumer of the copied bytes.
+   */
+  @FunctionalInterface
+  interface BufferConsumer {
+
+    /**
+     * Consumes all remaining bytes of the buffer.
+     *
+     * @param buffer the bytes.
+     *
+     * @throws IOException in case of any I/O error.
+     */
+    void accept (ByteBuffer buffer) throws IOException;
+  }
+}
@@ -17,9 +17,7 @@
 package feign.form.multipart;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 
 import lombok.val;
 
@@ -37,18 +35,23 @@ public class SingleFileWriter extends AbstractWriter {
     return value instanceof File;
   }
 
+  @Override
+  public boolean isCacheable (Class<?> type) {
+    return true;
+  }
+
+  @Override
+  public boolean isSizeable (Object value) {
+    return true;
+  }
+
   @Override
   protected void write (Output output, String key, Object value) throws EncodeException {
     val file = (File) value;
     writeFileMetadata(output, key, file.getName(), null);
 
-    try (InputStream input = new FileInputStream(file)) {
-      val buf = new byte[4096];
-      int length = input.read(buf);
-      while (length > 0) {
-        output.write(buf, 0, length);
-        length = input.read(buf);
-      }
+    try {
+      output.write(file);
     } catch (IOException ex) {
       val message = String.format("Writing file's '%s' content error", file.getName());
       throw new EncodeException(message, ex);
@@ -16,10 +16,6 @@
 
 package feign.form.multipart;
 
-import static feign.form.ContentProcessor.CRLF;
-
-import lombok.val;
-
 import feign.codec.EncodeException;
 
 /**
@@ -37,14 +33,18 @@ public class SingleParameterWriter extends AbstractWriter {
   }
 
   @Override
-  protected void write (Output output, String key, Object value) throws EncodeException {
-    val string = new StringBuilder()
-        .append("Content-Disposition: form-data; name=\"").append(key).append('"').append(CRLF)
-        .append("Content-Type: text/plain; charset=").append(output.getCharset().name()).append(CRLF)
-        .append(CRLF)
-        .append(value.toString())
-        .toString();
+  public boolean isCacheable (Class<?> type) {
+    return true;
+  }
 
-    output.write(string);
+  @Override
+  public boolean isSizeable (Object value) {
+    return true;
+  }
+
+  @Override
+  protected void write (Output output, String key, Object value) throws EncodeException {
+    output.writeFraming(Framing.of(output.getCharset()).parameterHeader(key))
+        .write(value.toString());
   }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+import feign.form.util.ByteArrayBuilder;
+import feign.form.util.ResourceReaper;
+
+/**
+ * A temporary file, which holds the spilled content of an {@link Output}.
+ * <p>
+ * The file is opened with {@link java.nio.file.StandardOpenOption#DELETE_ON_CLOSE},
+ * so it is deleted as soon as it is {@link #close() closed}. The files, which were
+ * not closed explicitly (like the streaming bodies of the abandoned requests), are closed by
+ * {@link ResourceReaper}, when their outputs are garbage collected.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class SpillFile implements Closeable {
+
+  FileChannel channel;
+
+  ResourceReaper.Registration registration;
+
+  @NonFinal
+  long size;
+
+  private SpillFile (FileChannel channel) {
+    this.channel = channel;
+    registration = ResourceReaper.register(this, channel);
+  }
+
+  /**
+   * Creates a new empty spill file in the default temporary-file directory.
+   *
+   * @return the spill file.
+   *
+   * @throws IOException in case of the file creation error.
+   */
+  static SpillFile create () throws IOException {
+    Path path = Files.createTempFile("feign-form-", ".spill");
+    try {
+      return new SpillFile(FileChannel.open(path, READ, WRITE, DELETE_ON_CLOSE));
+    } catch (IOException | RuntimeException ex) {
+      Files.deleteIfExists(path);
+      throw ex;
+    }
+  }
+
+  /**
+   * Appends all remaining bytes of the buffer to the end of the file.
+   *
+   * @param buffer the bytes to append.
+   *
+   * @return the position of the appended bytes in the file.
+   *
+   * @throws IOException in case of the writing error.
+   */
+  long append (ByteBuffer buffer) throws IOException {
+    val position = size;
+    while (buffer.hasRemaining()) {
+      size += channel.write(buffer, size);
+    }
+    return position;
+  }
+
+  /**
+   * Transfers the region of the file to the channel.
+   *
+   * @param position the position of the region.
+   * @param length   the length of the region.
+   * @param target   the destination channel.
+   *
+   * @throws IOException in case of any I/O error.
+   */
+  void transferTo (long position, long length, WritableByteChannel target) throws IOException {
+    long transferred = 0;
+    while (transferred < length) {
+      val count = channel.transferTo(position + transferred, length - transferred, target);
+      if (count <= 0) {
+        throw new EOFException("Unexpected end of the spill file");
+      }
+      transferred += count;
+    }
+  }
+
+  /**
+   * Reads the region of the file into the builder.
+   *
+   * @param position the position of the region.
+   * @param length   the length of the region.
+   * @param builder  the destination builder.
+   *
+   * @throws IOException in case of any I/O error.
+   */
+  void readTo (long position, int length, ByteArrayBuilder builder) throws IOException {
+    channel.position(position);
+    builder.append(channel, length);
+  }
+
+  @Override
+  public void close () throws IOException {
+    registration.close();
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import feign.form.util.ByteArrayBuilder;
+
+/**
+ * A region of the output's {@link SpillFile}.
+ *
+ * @author Artem Labazin
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class SpillSegment implements Segment {
+
+  SpillFile file;
+
+  long position;
+
+  long length;
+
+  @Override
+  public long length () {
+    return length;
+  }
+
+  @Override
+  public void writeTo (WritableByteChannel channel) throws IOException {
+    file.transferTo(position, length, channel);
+  }
+
+  @Override
+  public void writeTo (ByteArrayBuilder builder) throws IOException {
+    file.readTo(position, (int) length, builder);
+  }
+}
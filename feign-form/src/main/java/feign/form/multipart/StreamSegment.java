@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+import feign.form.util.ByteArrayBuilder;
+
+/**
+ * A referenced content source, its stream is opened and read only when the segment is written.
+ * The content is copied through a heap buffer of limited size, or read directly into the buffered body.
+ * A file stream (like the one of a disk-backed upload) is transferred with its channel, without the copying,
+ * if there is no boundary check.
+ *
+ * @author Artem Labazin
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class StreamSegment implements Segment {
+
+  ContentSource source;
+
+  long length;
+
+  BoundaryScanner scanner;
+
+  @Override
+  public long length () {
+    return length;
+  }
+
+  @Override
+  public void writeTo (WritableByteChannel channel) throws IOException {
+    try (val stream = source.getInputStream()) {
+      if (scanner == null && stream instanceof FileInputStream) {
+        Segment.transferFully(((FileInputStream) stream).getChannel(), length, channel);
+      } else {
+        Segment.copyScanning(Segment.channel(stream), length, scanner, buffer -> Segment.writeFully(channel, buffer));
+      }
+    }
+  }
+
+  @Override
+  public void writeTo (ByteArrayBuilder builder) throws IOException {
+    try (val stream = source.getInputStream()) {
+      if (scanner == null) {
+        builder.append(Segment.channel(stream), (int) length);
+      } else {
+        Segment.copyScanning(Segment.channel(stream), length, scanner, builder::append);
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+
+import lombok.val;
+
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+/**
+ * An encoder, which writes its output directly to a stream. Being a delegate of the form encoder,
+ * it writes the multipart parts straight into the body, and the parts are labeled with its
+ * {@link #getContentType() content type}.
+ * <p>
+ * For example, a Jackson-based one:
+ * <pre>{@code
+ * class JacksonStreamingEncoder implements StreamingEncoder {
+ *
+ *   ObjectMapper mapper = new ObjectMapper();
+ *
+ *   public String getContentType () {
+ *     return "application/json";
+ *   }
+ *
+ *   public void encode (Object object, Type bodyType, Charset charset, OutputStream stream) throws IOException {
+ *     mapper.writeValue(stream, object);
+ *   }
+ * }
+ * }</pre>
+ *
+ * @author Artem Labazin
+ */
+public interface StreamingEncoder extends Encoder {
+
+  /**
+   * Returns the content type of the encoded data, like {@code application/json}.
+   *
+   * @return content type header value.
+   */
+  String getContentType ();
+
+  /**
+   * Encodes the object to the stream. The stream must not be closed.
+   *
+   * @param object   object to encode.
+   * @param bodyType object's type.
+   * @param charset  the charset of the form, the encoder may use it for the text formats.
+   * @param stream   destination.
+   *
+   * @throws IOException in case of writing error.
+   */
+  void encode (Object object, Type bodyType, Charset charset, OutputStream stream) throws IOException;
+
+  /**
+   * Encodes the object to the template's body in memory, so the encoder can be used as a regular Feign's encoder.
+   *
+   * @param object   object to encode.
+   * @param bodyType object's type.
+   * @param template destination template.
+   *
+   * @throws EncodeException in case of encoding error.
+   */
+  @Override
+  default void encode (Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+    val charset = template.requestCharset() == null
+                  ? UTF_8
+                  : template.requestCharset();
+    val stream = new ByteArrayOutputStream();
+    try {
+      encode(object, bodyType, charset, stream);
+    } catch (IOException ex) {
+      throw new EncodeException("Streaming encoder error", ex);
+    }
+    template.body(stream.toByteArray(), charset);
+  }
+}
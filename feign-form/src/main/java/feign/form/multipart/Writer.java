@@ -45,4 +45,31 @@ public interface Writer {
    * @return {@code true} - if could write this object, otherwise {@code true}
    */
   boolean isApplicable (Object value);
+
+  /**
+   * Answers on question - "does {@link #isApplicable(Object)} answer depend only on the value's class".
+   * If so, the answer is cached for the class and the writer isn't probed for its values anymore.
+   * Override it together with {@link #isApplicable(Object)}.
+   *
+   * @param type value's class.
+   *
+   * @return {@code true} - if the answer is the same for all values of this class, otherwise {@code false}
+   */
+  default boolean isCacheable (Class<?> type) {
+    return false;
+  }
+
+  /**
+   * Answers on question - "could the value be written into a sizing output (see {@link Output#sizing})
+   * without side effects". The writes into a sizing output must not consume the value (like a stream)
+   * or change any state, because the value is written once more, when the body is built.
+   * The size of the values, which are not sizeable, can't be estimated in advance.
+   *
+   * @param value object to write.
+   *
+   * @return {@code true} - if the value can be safely sized, otherwise {@code false}
+   */
+  default boolean isSizeable (Object value) {
+    return false;
+  }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * An ordered chain of {@link Writer}s with a cached per-class dispatch.
+ * <p>
+ * A resolved writer is cached for the value's class, if all probed writers
+ * answered, that their decisions depend only on the class
+ * (see {@link Writer#isCacheable(Class)}). All other values, like collections,
+ * are probed on each lookup. The cache is cleared on every chain modification.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class WriterChain implements Iterable<Writer> {
+
+  Deque<Writer> writers = new LinkedList<>();
+
+  AtomicReference<Map<Class<?>, Optional<Writer>>> cache = new AtomicReference<>(new ConcurrentHashMap<>());
+
+  /**
+   * Adds {@link Writer} instance at the beginning of the chain.
+   *
+   * @param writer additional writer.
+   */
+  public void addFirst (Writer writer) {
+    writers.addFirst(writer);
+    cache.set(new ConcurrentHashMap<>());
+  }
+
+  /**
+   * Adds {@link Writer} instance at the end of the chain.
+   *
+   * @param writer additional writer.
+   */
+  public void addLast (Writer writer) {
+    writers.addLast(writer);
+    cache.set(new ConcurrentHashMap<>());
+  }
+
+  /**
+   * Searches the first writer, which could write the value.
+   *
+   * @param value object to write.
+   *
+   * @return applicable writer or {@code null}, if there is no such writer in the chain.
+   */
+  public Writer find (Object value) {
+    val type = value.getClass();
+    val dispatch = cache.get();
+    val cached = dispatch.get(type);
+    if (cached != null) {
+      // an empty one is cached, if no writer is applicable
+      return cached.orElse(null);
+    }
+
+    boolean cacheable = true;
+    Writer result = null;
+    for (val writer : writers) {
+      cacheable &= writer.isCacheable(type);
+      if (writer.isApplicable(value)) {
+        result = writer;
+        break;
+      }
+    }
+    if (cacheable) {
+      dispatch.put(type, Optional.ofNullable(result));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the <b>unmodifiable</b> collection of all writers.
+   *
+   * @return writers collection.
+   */
+  public Collection<Writer> getWriters () {
+    return Collections.unmodifiableCollection(writers);
+  }
+
+  @Override
+  public Iterator<Writer> iterator () {
+    return getWriters().iterator();
+  }
+}
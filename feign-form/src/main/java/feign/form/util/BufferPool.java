@@ -0,0 +1,154 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * A bounded pool of reusable byte arrays for the encode buffers.
+ * <p>
+ * The arrays are grouped by power-of-two size classes, from 1 KiB up to the maximum
+ * buffer size. Every size class has a few lock-free slots, striped by thread,
+ * so the concurrent threads mostly don't contend for the same slot. The total size
+ * of the retained arrays never exceeds the pool's limit, the arrays, which don't fit,
+ * are left to the garbage collector.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class BufferPool {
+
+  private static final int MIN_SHIFT = 10;
+
+  private static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+  private static final int PROBES = 4;
+
+  long maxRetainedBytes;
+
+  int maxBufferSize;
+
+  int stripes;
+
+  AtomicReferenceArray<byte[]> slots;
+
+  AtomicLong retained = new AtomicLong();
+
+  /**
+   * Constructor with the default maximum buffer size (1 MiB).
+   *
+   * @param maxRetainedBytes the maximum total size of the pooled arrays.
+   */
+  public BufferPool (long maxRetainedBytes) {
+    this(maxRetainedBytes, DEFAULT_MAX_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param maxRetainedBytes the maximum total size of the pooled arrays.
+   * @param maxBufferSize    the maximum size of a pooled array, the larger arrays are never pooled.
+   */
+  public BufferPool (long maxRetainedBytes, int maxBufferSize) {
+    if (maxRetainedBytes < 0 || maxBufferSize < 1 << MIN_SHIFT) {
+      throw new IllegalArgumentException("Invalid pool limits: " + maxRetainedBytes + ", " + maxBufferSize);
+    }
+    this.maxRetainedBytes = maxRetainedBytes;
+    this.maxBufferSize = Integer.highestOneBit(maxBufferSize);
+    stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    slots = new AtomicReferenceArray<>((sizeClass(this.maxBufferSize) + 1) * stripes);
+  }
+
+  /**
+   * Returns an array, which is at least of the requested size. It is taken from
+   * the pool, if there is a free one of the request's size class, otherwise a new array
+   * is allocated.
+   *
+   * @param size the minimum array size.
+   *
+   * @return an array of the size class length, or of the exact size, if it is larger than the maximum buffer size.
+   */
+  public byte[] acquire (int size) {
+    if (size > maxBufferSize) {
+      return new byte[size];
+    }
+    val sizeClass = sizeClass(size);
+    val base = sizeClass * stripes;
+    val stripe = stripe();
+    for (int probe = 0; probe < PROBES; probe++) {
+      val index = base + (stripe + probe & stripes - 1);
+      val buffer = slots.get(index);
+      if (buffer != null && slots.compareAndSet(index, buffer, null)) {
+        retained.addAndGet(-buffer.length);
+        return buffer;
+      }
+    }
+    return new byte[1 << sizeClass + MIN_SHIFT];
+  }
+
+  /**
+   * Returns the array to the pool. The arrays, which were not acquired from a pool,
+   * or which don't fit into the pool's limit, are ignored. The retained array is cleared, so the next
+   * borrower doesn't see its content. The array must not be used after that.
+   *
+   * @param buffer the released array.
+   */
+  public void release (byte[] buffer) {
+    val length = buffer.length;
+    if (length > maxBufferSize || length < 1 << MIN_SHIFT || Integer.bitCount(length) != 1) {
+      return;
+    }
+    if (retained.addAndGet(length) > maxRetainedBytes) {
+      retained.addAndGet(-length);
+      return;
+    }
+    Arrays.fill(buffer, (byte) 0);
+    val base = sizeClass(length) * stripes;
+    val stripe = stripe();
+    for (int probe = 0; probe < PROBES; probe++) {
+      val index = base + (stripe + probe & stripes - 1);
+      if (slots.compareAndSet(index, null, buffer)) {
+        return;
+      }
+    }
+    retained.addAndGet(-length);
+  }
+
+  /**
+   * Returns the total size of the arrays, which are kept in the pool now.
+   *
+   * @return the retained bytes.
+   */
+  public long getRetainedBytes () {
+    return retained.get();
+  }
+
+  private int stripe () {
+    return (int) Thread.currentThread().getId() & stripes - 1;
+  }
+
+  private static int sizeClass (int size) {
+    return Math.max(0, Integer.SIZE - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT);
+  }
+}
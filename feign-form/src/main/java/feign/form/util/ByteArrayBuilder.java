@@ -0,0 +1,418 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.Arrays;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * A not synchronized growable byte array, like {@link StringBuilder} for bytes.
+ * <p>
+ * If the builder is filled exactly to its capacity, {@link #toByteArray()} returns
+ * the internal array without copying it, and the builder switches to a new array
+ * on the next modification.
+ * <p>
+ * The builder with a {@link BufferPool} takes its arrays from the pool, never gives them
+ * out by {@link #toByteArray()} and returns them back to the pool on {@link #release()}.
+ * An array, which is viewed by {@link #toByteBuffer(int)}, is not returned, unless the views' owner
+ * {@link #recycle() recycles} it.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE)
+public final class ByteArrayBuilder {
+
+  private static final int DEFAULT_CAPACITY = 256;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private static final char ASCII_LIMIT = 0x80;
+
+  private static final char UTF8_TWO_BYTES_LIMIT = 0x800;
+
+  byte[] buffer;
+
+  int length;
+
+  boolean shared;
+
+  BufferPool pool;
+
+  /**
+   * Constructor with the default initial capacity.
+   */
+  public ByteArrayBuilder () {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor with the specified initial capacity.
+   *
+   * @param capacity initial capacity in bytes.
+   */
+  public ByteArrayBuilder (int capacity) {
+    this(capacity, null);
+  }
+
+  /**
+   * Constructor with the specified initial capacity and the pool of arrays.
+   *
+   * @param capacity initial capacity in bytes.
+   * @param pool     the pool of arrays, may be {@code null}.
+   */
+  public ByteArrayBuilder (int capacity, BufferPool pool) {
+    this.pool = pool;
+    buffer = allocate(capacity);
+  }
+
+  /**
+   * Appends the single byte.
+   *
+   * @param value byte to append.
+   *
+   * @return this builder.
+   */
+  public ByteArrayBuilder append (int value) {
+    ensureCapacity(length + 1);
+    buffer[length++] = (byte) value;
+    return this;
+  }
+
+  /**
+   * Appends the whole byte array.
+   *
+   * @param bytes bytes to append.
+   *
+   * @return this builder.
+   */
+  public ByteArrayBuilder append (byte[] bytes) {
+    return append(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Appends the part of the byte array.
+   *
+   * @param bytes  bytes to append.
+   * @param offset the offset of the first byte to append.
+   * @param count  the number of bytes to append.
+   *
+   * @return this builder.
+   */
+  public ByteArrayBuilder append (byte[] bytes, int offset, int count) {
+    ensureCapacity(length + count);
+    System.arraycopy(bytes, offset, buffer, length, count);
+    length += count;
+    return this;
+  }
+
+  /**
+   * Appends the remaining bytes of the buffer. The buffer's position is moved to its limit.
+   *
+   * @param source bytes to append.
+   *
+   * @return this builder.
+   */
+  public ByteArrayBuilder append (ByteBuffer source) {
+    val count = source.remaining();
+    ensureCapacity(length + count);
+    source.get(buffer, length, count);
+    length += count;
+    return this;
+  }
+
+  /**
+   * Encodes the characters to UTF-8 directly into this builder's buffer. The unpaired
+   * surrogates are replaced with {@code '?'}, like {@link String#getBytes(java.nio.charset.Charset)} does.
+   *
+   * @param text text to encode.
+   * @param from the index of the first character to encode.
+   *
+   * @return this builder.
+   */
+  public ByteArrayBuilder appendUtf8 (CharSequence text, int from) {
+    int index = from;
+    while (index < text.length()) {
+      val symbol = text.charAt(index++);
+      if (symbol < ASCII_LIMIT) {
+        append(symbol);
+      } else if (symbol < UTF8_TWO_BYTES_LIMIT) {
+        append(0xC0 | symbol >> 6).append(0x80 | symbol & 0x3F);
+      } else if (Character.isHighSurrogate(symbol) && index < text.length() &&
+                 Character.isLowSurrogate(text.charAt(index))) {
+        appendUtf8CodePoint(Character.toCodePoint(symbol, text.charAt(index++)));
+      } else if (Character.isSurrogate(symbol)) {
+        append('?');
+      } else {
+        append(0xE0 | symbol >> 12).append(0x80 | symbol >> 6 & 0x3F).append(0x80 | symbol & 0x3F);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Computes the number of bytes, which {@link #appendUtf8(CharSequence, int)} appends for the whole text.
+   *
+   * @param text text to measure.
+   *
+   * @return UTF-8 length of the text.
+   */
+  public static long utf8Length (CharSequence text) {
+    long result = 0;
+    int index = 0;
+    while (index < text.length()) {
+      val symbol = text.charAt(index++);
+      if (symbol < ASCII_LIMIT) {
+        result++;
+      } else if (symbol < UTF8_TWO_BYTES_LIMIT) {
+        result += 2;
+      } else if (Character.isHighSurrogate(symbol) && index < text.length() &&
+                 Character.isLowSurrogate(text.charAt(index))) {
+        result += 4;
+        index++;
+      } else if (Character.isSurrogate(symbol)) {
+        result++; // replaced with '?'
+      } else {
+        result += 3;
+      }
+    }
+    return result;
+  }
+
+  private void appendUtf8CodePoint (int codePoint) {
+    append(0xF0 | codePoint >> 18)
+        .append(0x80 | codePoint >> 12 & 0x3F)
+        .append(0x80 | codePoint >> 6 & 0x3F)
+        .append(0x80 | codePoint & 0x3F);
+  }
+
+  /**
+   * Encodes the remaining characters directly into this builder's buffer, without
+   * intermediate arrays. The encoder is reset before encoding, its error actions
+   * define how malformed and unmappable characters are handled.
+   *
+   * @param source  characters to encode.
+   * @param encoder encoder of the target charset.
+   *
+   * @return this builder.
+   */
+  @SneakyThrows(CharacterCodingException.class)
+  public ByteArrayBuilder append (CharBuffer source, CharsetEncoder encoder) {
+    encoder.reset();
+    ensureCapacity(length + (int) Math.ceil(source.remaining() * encoder.averageBytesPerChar()));
+    boolean flushing = false;
+    CoderResult result;
+    do {
+      val target = ByteBuffer.wrap(buffer, length, buffer.length - length);
+      result = flushing
+               ? encoder.flush(target)
+               : encoder.encode(source, target, true);
+      if (result.isUnderflow() && !flushing) {
+        flushing = true;
+        result = encoder.flush(target);
+      }
+      length = target.position();
+      if (result.isOverflow()) {
+        ensureCapacity(buffer.length + 1);
+      } else if (result.isError()) {
+        result.throwException();
+      }
+    } while (!result.isUnderflow());
+    return this;
+  }
+
+  /**
+   * Returns the number of appended bytes.
+   *
+   * @return this builder's length.
+   */
+  public int length () {
+    return length;
+  }
+
+  /**
+   * Returns the length of the allocated buffer.
+   *
+   * @return this builder's capacity.
+   */
+  public int capacity () {
+    return buffer.length;
+  }
+
+  /**
+   * Returns the capacity, which {@link #ensureCapacity(int)} allocates for the required one,
+   * so it can be reserved before the allocation (the pool may round it up).
+   *
+   * @param capacity required capacity.
+   *
+   * @return the capacity after the growth.
+   */
+  public int grownCapacity (int capacity) {
+    return capacity <= buffer.length
+           ? buffer.length
+           : Math.max(capacity, buffer.length << 1);
+  }
+
+  /**
+   * Forgets all appended bytes, but keeps the allocated buffer.
+   */
+  public void reset () {
+    length = 0;
+    if (shared) {
+      buffer = allocate(buffer.length);
+      shared = false;
+    }
+  }
+
+  /**
+   * Returns the exactly sized array of the appended bytes. The internal array is returned
+   * as is, if it is exactly full, otherwise it is copied.
+   *
+   * @return appended bytes.
+   */
+  @SuppressWarnings("PMD.MethodReturnsInternalArray")
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "the shared array is never modified, see the class description")
+  public byte[] toByteArray () {
+    if (length == buffer.length && pool == null) {
+      shared = true;
+      return buffer;
+    }
+    return Arrays.copyOf(buffer, length);
+  }
+
+  /**
+   * Returns the read-only view of the appended bytes without copying them.
+   *
+   * @return appended bytes.
+   */
+  public ByteBuffer toByteBuffer () {
+    return toByteBuffer(0);
+  }
+
+  /**
+   * Returns the read-only view of the bytes appended after the offset without copying them.
+   * The view stays valid after the next appends.
+   *
+   * @param offset the offset of the first byte of the view.
+   *
+   * @return appended bytes starting from the offset.
+   */
+  public ByteBuffer toByteBuffer (int offset) {
+    shared = true;
+    return ByteBuffer.wrap(buffer, offset, length - offset).slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns the exactly sized copy of the bytes appended after the offset.
+   *
+   * @param offset the offset of the first byte to copy.
+   *
+   * @return appended bytes starting from the offset.
+   */
+  public byte[] toByteArray (int offset) {
+    return Arrays.copyOfRange(buffer, offset, length);
+  }
+
+  /**
+   * Ensures that the buffer can hold the specified number of bytes without resizing.
+   *
+   * @param capacity required capacity.
+   */
+  public void ensureCapacity (int capacity) {
+    if (capacity <= buffer.length) {
+      return;
+    }
+    val grown = allocate(grownCapacity(capacity));
+    System.arraycopy(buffer, 0, grown, 0, length);
+    if (!shared) {
+      recycle(buffer);
+    }
+    buffer = grown;
+    shared = false;
+  }
+
+  /**
+   * Returns the array to the pool, if the builder has one and the array is not viewed
+   * by {@link #toByteBuffer(int)}. The builder must not be used after that.
+   */
+  public void release () {
+    if (!shared) {
+      recycle(buffer);
+    }
+    buffer = EMPTY;
+    length = 0;
+    shared = false;
+  }
+
+  /**
+   * Returns the array to the pool, if the builder has one, even if it is viewed by {@link #toByteBuffer(int)}:
+   * the caller owns the views and guarantees, that they are not used anymore. The builder must not be used after that.
+   */
+  public void recycle () {
+    recycle(buffer);
+    buffer = EMPTY;
+    length = 0;
+    shared = false;
+  }
+
+  private void recycle (byte[] array) {
+    if (pool != null) {
+      pool.release(array);
+    }
+  }
+
+  private byte[] allocate (int capacity) {
+    return pool == null
+           ? new byte[capacity]
+           : pool.acquire(capacity);
+  }
+
+  /**
+   * Reads exactly the specified number of bytes from the channel directly into this builder.
+   *
+   * @param channel source channel.
+   * @param count   the number of bytes to read.
+   *
+   * @return this builder.
+   *
+   * @throws IOException in case of reading error, or if the channel has less bytes than expected.
+   */
+  public ByteArrayBuilder append (ReadableByteChannel channel, int count) throws IOException {
+    ensureCapacity(length + count);
+    val target = ByteBuffer.wrap(buffer, length, count);
+    while (target.hasRemaining()) {
+      if (channel.read(target) < 0) {
+        throw new EOFException("Unexpected end of channel, expected " + count + " bytes");
+      }
+    }
+    length += count;
+    return this;
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static java.nio.charset.CodingErrorAction.REPLACE;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * A form-urlencoding engine, which writes percent-encoded bytes directly
+ * to a {@link ByteArrayBuilder}. It produces the same output as
+ * {@link java.net.URLEncoder#encode(String, String)}, but without
+ * the intermediate strings and charset lookups.
+ * <p>
+ * Instances are thread safe and cached per charset.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class FormUrlEncoder {
+
+  private static final Map<Charset, FormUrlEncoder> ENCODERS = new ConcurrentHashMap<>();
+
+  private static final byte[] HEX = "0123456789ABCDEF".getBytes(US_ASCII);
+
+  /**
+   * Bytes, which are written as is (the space is written as '+'), zero means percent-encoding.
+   */
+  private static final byte[] SAFE = new byte[128];
+
+  private static final int LATIN1_LIMIT = 0x100;
+
+  private static final int UTF8_TWO_BYTES_LIMIT = 0x800;
+
+  private static final int MAX_CACHED_KEYS = 512;
+
+  private static final int MAX_CACHED_KEY_LENGTH = 64;
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      SAFE[c] = (byte) c;
+      SAFE[Character.toUpperCase(c)] = (byte) Character.toUpperCase(c);
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      SAFE[c] = (byte) c;
+    }
+    for (val c : new char[] { '-', '_', '.', '*' }) {
+      SAFE[c] = (byte) c;
+    }
+    SAFE[' '] = '+';
+  }
+
+  boolean utf8;
+
+  boolean latin1;
+
+  boolean asciiCompatible;
+
+  ThreadLocal<CharsetEncoder> encoders;
+
+  Map<String, byte[]> keys = new ConcurrentHashMap<>();
+
+  private FormUrlEncoder (Charset charset) {
+    utf8 = UTF_8.equals(charset);
+    latin1 = ISO_8859_1.equals(charset);
+    asciiCompatible = isAsciiCompatible(charset);
+    encoders = ThreadLocal.withInitial(() -> charset.newEncoder()
+        .onMalformedInput(REPLACE)
+        .onUnmappableCharacter(REPLACE));
+  }
+
+  /**
+   * Returns the encoder for the charset.
+   *
+   * @param charset charset for non-ASCII characters.
+   *
+   * @return cached encoder instance.
+   */
+  public static FormUrlEncoder of (@NonNull Charset charset) {
+    return ENCODERS.computeIfAbsent(charset, FormUrlEncoder::new);
+  }
+
+  private static boolean isAsciiCompatible (Charset charset) {
+    if (!charset.canEncode()) {
+      return false;
+    }
+    val ascii = new byte[SAFE.length];
+    for (int index = 0; index < ascii.length; index++) {
+      ascii[index] = (byte) index;
+    }
+    return Arrays.equals(ascii, new String(ascii, US_ASCII).getBytes(charset));
+  }
+
+  /**
+   * Writes the percent-encoded form key. The encoded bytes of short keys are cached.
+   *
+   * @param key    key to encode.
+   * @param output destination.
+   */
+  public void encodeKey (String key, ByteArrayBuilder output) {
+    val cached = keys.get(key);
+    if (cached != null) {
+      output.append(cached);
+      return;
+    }
+    if (key.length() > MAX_CACHED_KEY_LENGTH || keys.size() >= MAX_CACHED_KEYS) {
+      encode(key, output);
+      return;
+    }
+    val start = output.length();
+    encode(key, output);
+    keys.putIfAbsent(key, output.toByteArray(start));
+  }
+
+  /**
+   * Writes the percent-encoded value.
+   *
+   * @param value  value to encode.
+   * @param output destination.
+   */
+  public void encode (CharSequence value, ByteArrayBuilder output) {
+    val length = value.length();
+    output.ensureCapacity(output.length() + length);
+    int index = 0;
+    while (index < length) {
+      val symbol = value.charAt(index);
+      if (isSafe(symbol)) {
+        output.append(SAFE[symbol]);
+        index++;
+      } else if (asciiCompatible && symbol < SAFE.length || latin1 && symbol < LATIN1_LIMIT) {
+        percent(symbol, output);
+        index++;
+      } else if (utf8) {
+        index = encodeUtf8(value, index, output);
+      } else {
+        index = encodeWithCharset(value, index, output);
+      }
+    }
+  }
+
+  private int encodeUtf8 (CharSequence value, int index, ByteArrayBuilder output) {
+    val symbol = value.charAt(index);
+    if (symbol < UTF8_TWO_BYTES_LIMIT) {
+      percent(0xC0 | symbol >> 6, output);
+      percent(0x80 | symbol & 0x3F, output);
+      return index + 1;
+    }
+    if (!Character.isSurrogate(symbol)) {
+      percent(0xE0 | symbol >> 12, output);
+      percent(0x80 | symbol >> 6 & 0x3F, output);
+      percent(0x80 | symbol & 0x3F, output);
+      return index + 1;
+    }
+    if (Character.isHighSurrogate(symbol) && index + 1 < value.length() &&
+        Character.isLowSurrogate(value.charAt(index + 1))) {
+      val codePoint = Character.toCodePoint(symbol, value.charAt(index + 1));
+      percent(0xF0 | codePoint >> 18, output);
+      percent(0x80 | codePoint >> 12 & 0x3F, output);
+      percent(0x80 | codePoint >> 6 & 0x3F, output);
+      percent(0x80 | codePoint & 0x3F, output);
+      return index + 2;
+    }
+    percent('?', output);
+    return index + 1;
+  }
+
+  @SneakyThrows(CharacterCodingException.class)
+  private int encodeWithCharset (CharSequence value, int index, ByteArrayBuilder output) {
+    int end = index + 1;
+    while (end < value.length() && !isSafe(value.charAt(end))) {
+      end++;
+    }
+    val encoder = encoders.get();
+    encoder.reset();
+    val bytes = encoder.encode(CharBuffer.wrap(value, index, end));
+    while (bytes.hasRemaining()) {
+      percent(bytes.get(), output);
+    }
+    return end;
+  }
+
+  private static boolean isSafe (char symbol) {
+    return symbol < SAFE.length && SAFE[symbol] != 0;
+  }
+
+  private static void percent (int value, ByteArrayBuilder output) {
+    output
+        .append('%')
+        .append(HEX[value >> 4 & 0xF])
+        .append(HEX[value & 0xF]);
+  }
+}
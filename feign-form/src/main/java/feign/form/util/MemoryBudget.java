@@ -0,0 +1,207 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * A memory budget, which is shared by the concurrent encodings.
+ * <p>
+ * The encoders reserve the memory of their buffers (and of the assembled bodies) before they use it,
+ * and release it, when the encoding is completed. If a reservation doesn't fit into
+ * the budget's limit, the encoder follows the budget's {@link Overflow} policy.
+ * The current usage is available as a gauge, see {@link #getUsedBytes()}.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class MemoryBudget {
+
+  /**
+   * The budget's limit in bytes.
+   */
+  @Getter
+  long limitBytes;
+
+  /**
+   * The policy for the reservations, which don't fit into the budget.
+   */
+  @Getter
+  Overflow overflow;
+
+  long timeoutNanos;
+
+  AtomicLong used = new AtomicLong();
+
+  AtomicInteger waiters = new AtomicInteger();
+
+  /**
+   * Constructor of the budget, which throws {@link MemoryBudgetExceededException},
+   * or spills, without waiting. The {@link Overflow#BLOCK} policy needs a timeout,
+   * see {@link #MemoryBudget(long, Overflow, long, TimeUnit)}.
+   *
+   * @param limitBytes the budget's limit in bytes.
+   * @param overflow   the overflow policy, {@link Overflow#FAIL} or {@link Overflow#SPILL}.
+   *
+   * @throws IllegalArgumentException if the policy is {@link Overflow#BLOCK}.
+   */
+  public MemoryBudget (long limitBytes, @NonNull Overflow overflow) {
+    this(limitBytes, overflow, 0, TimeUnit.NANOSECONDS);
+    if (overflow == Overflow.BLOCK) {
+      throw new IllegalArgumentException("The BLOCK policy requires a timeout");
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param limitBytes the budget's limit in bytes.
+   * @param overflow   the overflow policy.
+   * @param timeout    the maximum time to wait for the budget with {@link Overflow#BLOCK} policy.
+   * @param unit       the timeout's unit.
+   */
+  public MemoryBudget (long limitBytes, @NonNull Overflow overflow, long timeout, @NonNull TimeUnit unit) {
+    if (limitBytes <= 0 || timeout < 0) {
+      throw new IllegalArgumentException("Invalid budget limits: " + limitBytes + ", " + timeout);
+    }
+    this.limitBytes = limitBytes;
+    this.overflow = overflow;
+    timeoutNanos = unit.toNanos(timeout);
+  }
+
+  /**
+   * Reserves the bytes, if they fit into the budget.
+   *
+   * @param bytes the number of bytes.
+   *
+   * @return {@code true} if the bytes are reserved.
+   */
+  public boolean tryReserve (long bytes) {
+    while (true) {
+      val current = used.get();
+      if (current + bytes > limitBytes) {
+        return false;
+      }
+      if (used.compareAndSet(current, current + bytes)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Reserves the bytes according to the overflow policy: waits for them with {@link Overflow#BLOCK},
+   * fails with {@link Overflow#FAIL} and reserves them over the limit with {@link Overflow#SPILL}
+   * (the callers spill what they can before, the remaining memory can't be spilled).
+   *
+   * @param bytes the number of bytes.
+   *
+   * @throws MemoryBudgetExceededException if the bytes don't fit into the budget (in time).
+   */
+  public void reserve (long bytes) {
+    if (tryReserve(bytes)) {
+      return;
+    }
+    if (overflow == Overflow.SPILL) {
+      used.addAndGet(bytes);
+      return;
+    }
+    if (overflow == Overflow.FAIL || bytes > limitBytes || !await(bytes)) {
+      throw new MemoryBudgetExceededException(bytes, limitBytes);
+    }
+  }
+
+  /**
+   * Returns the reserved bytes to the budget and wakes up the waiting reservations.
+   *
+   * @param bytes the number of bytes.
+   */
+  @SuppressFBWarnings(value = "NN_NAKED_NOTIFY", justification = "the usage is atomic, the waiters re-check it under the lock")
+  public void release (long bytes) {
+    if (bytes == 0) {
+      return;
+    }
+    used.addAndGet(-bytes);
+    if (waiters.get() > 0) {
+      synchronized (this) {
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of bytes, which are reserved now.
+   *
+   * @return the reserved bytes.
+   */
+  public long getUsedBytes () {
+    return used.get();
+  }
+
+  private boolean await (long bytes) {
+    val deadline = System.nanoTime() + timeoutNanos;
+    waiters.incrementAndGet();
+    try {
+      synchronized (this) {
+        while (!tryReserve(bytes)) {
+          val remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            return false;
+          }
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * The policy for the reservations, which don't fit into the budget.
+   */
+  public enum Overflow {
+
+    /**
+     * Wait for the budget up to the timeout, then throw {@link MemoryBudgetExceededException}.
+     */
+    BLOCK,
+
+    /**
+     * Throw {@link MemoryBudgetExceededException} immediately.
+     */
+    FAIL,
+
+    /**
+     * Spill the encode buffers to temporary files. The memory, which can't be spilled
+     * (like the assembled buffered bodies), is reserved over the limit.
+     */
+    SPILL;
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import feign.codec.EncodeException;
+
+/**
+ * The exception, which is thrown if the encoding doesn't fit into the {@link MemoryBudget}.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public class MemoryBudgetExceededException extends EncodeException {
+
+  private static final long serialVersionUID = -3079254116375254302L;
+
+  /**
+   * The number of bytes, which were requested.
+   */
+  @Getter
+  long requestedBytes;
+
+  /**
+   * The budget's limit in bytes.
+   */
+  @Getter
+  long limitBytes;
+
+  /**
+   * Constructor.
+   *
+   * @param requestedBytes the number of bytes, which were requested.
+   * @param limitBytes     the budget's limit in bytes.
+   */
+  public MemoryBudgetExceededException (long requestedBytes, long limitBytes) {
+    super("The encode memory budget of " + limitBytes + " bytes is exceeded, " +
+          requestedBytes + " more bytes were requested");
+    this.requestedBytes = requestedBytes;
+    this.limitBytes = limitBytes;
+  }
+}
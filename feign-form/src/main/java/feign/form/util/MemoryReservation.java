@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.Closeable;
+
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+/**
+ * The growing reservation of a single encode buffer in a {@link MemoryBudget}.
+ * <p>
+ * The buffer's owner covers the capacity before the buffer grows to it (and the actual capacity
+ * after the growth, if it is larger). With {@link MemoryBudget.Overflow#BLOCK} policy the reservation
+ * doesn't hold its part of the budget, while it waits for the rest: it is returned first and the whole amount
+ * is reserved at once, so the concurrent encodings can't block each other with their partial reservations.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class MemoryReservation {
+
+  /**
+   * The minimum growth of the reservation, so the budget is not updated on every small growth.
+   */
+  private static final int STEP = 16 * 1024;
+
+  MemoryBudget budget;
+
+  /**
+   * The number of the reserved bytes.
+   */
+  @Getter
+  @NonFinal
+  long reserved;
+
+  /**
+   * Constructor.
+   *
+   * @param budget the budget, may be {@code null} (the memory is not limited).
+   */
+  public MemoryReservation (MemoryBudget budget) {
+    this.budget = budget;
+  }
+
+  /**
+   * Grows the reservation to the specified number of bytes according to the budget's overflow policy.
+   *
+   * @param bytes the total number of bytes to cover.
+   *
+   * @throws MemoryBudgetExceededException if the bytes don't fit into the budget (in time).
+   */
+  public void cover (long bytes) {
+    if (budget == null || bytes <= reserved) {
+      return;
+    }
+    val extra = Math.max(bytes - reserved, STEP);
+    if (budget.tryReserve(extra)) {
+      reserved += extra;
+      return;
+    }
+    if (budget.getOverflow() == MemoryBudget.Overflow.BLOCK) {
+      val total = reserved + extra;
+      release();
+      budget.reserve(total);
+      reserved = total;
+      return;
+    }
+    budget.reserve(extra);
+    reserved += extra;
+  }
+
+  /**
+   * Grows the reservation to the specified number of bytes, if they fit into the budget now.
+   *
+   * @param bytes the total number of bytes to cover.
+   *
+   * @return {@code true} if the bytes are covered.
+   */
+  public boolean tryCover (long bytes) {
+    if (budget == null || bytes <= reserved) {
+      return true;
+    }
+    val extra = bytes - reserved;
+    if (!budget.tryReserve(extra)) {
+      return false;
+    }
+    reserved += extra;
+    return true;
+  }
+
+  /**
+   * Returns the whole reservation to the budget.
+   */
+  public void release () {
+    if (budget != null) {
+      budget.release(reserved);
+      reserved = 0;
+    }
+  }
+
+  /**
+   * Hands the current reservation over to the returned closeable, which returns it to the budget.
+   * This reservation is empty after that. The closeable doesn't reference this reservation, so it can be
+   * registered in the {@link ResourceReaper} of the reservation's owner.
+   *
+   * @return the closeable, which releases the detached reservation.
+   */
+  public Closeable detach () {
+    val detachedBudget = budget;
+    val bytes = reserved;
+    reserved = 0;
+    return () -> {
+      if (detachedBudget != null) {
+        detachedBudget.release(bytes);
+      }
+    };
+  }
+}
@@ -16,88 +16,304 @@
 
 package feign.form.util;
 
+import static java.lang.invoke.MethodType.methodType;
 import static java.lang.reflect.Modifier.isFinal;
+import static java.lang.reflect.Modifier.isPublic;
 import static java.lang.reflect.Modifier.isStatic;
 import static lombok.AccessLevel.PRIVATE;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.rmi.UnexpectedException;
-import java.security.PrivilegedAction;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
-import javax.annotation.Nullable;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import lombok.NoArgsConstructor;
 import lombok.NonNull;
-import lombok.Setter;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.Value;
 import lombok.experimental.FieldDefaults;
 import lombok.val;
 
+import feign.form.FormMapper;
+import feign.form.FormMappers;
 import feign.form.FormProperty;
 
 /**
  * An utility class to work with POJOs.
+ * <p>
+ * The reflective metadata of every POJO class (property names and accessors) is computed
+ * only once and cached, so the repeated conversions don't do any reflection lookups.
+ * If there is a registered {@link FormMapper} for a POJO class (for example, a generated one),
+ * it is used instead of reflection.
  *
  * @author Artem Labazin
  */
 public final class PojoUtil {
 
+  static final ClassValue<Boolean> USER_POJOS = new ClassValue<Boolean>() {
+
+    @Override
+    protected Boolean computeValue (Class<?> type) {
+      return !type.getName().startsWith("java.");
+    }
+  };
+
+  private static final ClassValue<Boolean> USER_POJO_TYPES = new ClassValue<Boolean>() {
+
+    @Override
+    protected Boolean computeValue (Class<?> type) {
+      return !type.toString().startsWith("class java.");
+    }
+  };
+
+  /**
+   * The decisions for the generic (not {@link Class}) body types, which are checked by their names.
+   */
+  private static final Map<Type, Boolean> USER_POJO_GENERIC_TYPES = new ConcurrentHashMap<>();
+
+  private static final int MAX_CACHED_GENERIC_TYPES = 256;
+
+  private static final ClassValue<PojoPlan> PLANS = new ClassValue<PojoPlan>() {
+
+    @Override
+    protected PojoPlan computeValue (Class<?> type) {
+      return PojoPlan.of(type);
+    }
+  };
+
   public static boolean isUserPojo (@NonNull Object object) {
-    val type = object.getClass();
-    val packageName = type.getPackage().getName();
-    return !packageName.startsWith("java.");
+    return USER_POJOS.get(object.getClass());
   }
 
   public static boolean isUserPojo (@NonNull Type type) {
-    val typeName = type.toString();
-    return !typeName.startsWith("class java.");
+    if (type instanceof Class) {
+      return USER_POJO_TYPES.get((Class<?>) type);
+    }
+    val cached = USER_POJO_GENERIC_TYPES.get(type);
+    if (cached != null) {
+      return cached;
+    }
+    val result = !type.toString().startsWith("class java.");
+    if (USER_POJO_GENERIC_TYPES.size() < MAX_CACHED_GENERIC_TYPES) {
+      USER_POJO_GENERIC_TYPES.put(type, result);
+    }
+    return result;
   }
 
-  @SneakyThrows
-  @SuppressFBWarnings("DP_DO_INSIDE_DO_PRIVILEGED")
+  /**
+   * Returns the not {@code null} properties of the POJO. The reflective conversion returns
+   * a read-only map, which is backed by the array of the property values.
+   *
+   * @param object POJO to convert.
+   *
+   * @return properties by their names.
+   */
+  @SuppressWarnings("unchecked")
   public static Map<String, Object> toMap (@NonNull Object object) {
-    val result = new HashMap<String, Object>();
-    val type = object.getClass();
-    for (val field : type.getDeclaredFields()) {
+    val mapper = (FormMapper<Object>) FormMappers.find(object.getClass());
+    return mapper != null
+           ? mapper.toMap(object)
+           : PLANS.get(object.getClass()).toMap(object);
+  }
+
+  private PojoUtil () throws UnexpectedException {
+    throw new UnexpectedException("It is not allowed to instantiate this class");
+  }
+
+  @RequiredArgsConstructor
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class PojoPlan {
+
+    private static final MethodType ACCESSOR_TYPE = methodType(Object.class, Object.class);
+
+    Property[] properties;
+
+    static PojoPlan of (Class<?> type) {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      boolean record = isRecord(type);
+      val names = new HashSet<String>();
+      val properties = new ArrayList<Property>();
+      for (Class<?> current = type; current != null && USER_POJOS.get(current); current = current.getSuperclass()) {
+        for (Field field : current.getDeclaredFields()) {
+          if (!isProperty(field, record)) {
+            continue;
+          }
+          val formProperty = field.getAnnotation(FormProperty.class);
+          val name = formProperty != null
+                     ? formProperty.value()
+                     : field.getName();
+
+          if (names.add(name)) {
+            properties.add(new Property(name, accessor(lookup, field, record)));
+          }
+        }
+      }
+      return new PojoPlan(properties.toArray(new Property[0]));
+    }
+
+    @SneakyThrows
+    Map<String, Object> toMap (Object object) {
+      val values = new Object[properties.length];
+      int size = 0;
+      for (int index = 0; index < properties.length; index++) {
+        val value = (Object) properties[index].getAccessor().invokeExact(object);
+        if (value != null) {
+          values[index] = value;
+          size++;
+        }
+      }
+      return new PropertyMap(properties, values, size);
+    }
+
+    private static boolean isProperty (Field field, boolean record) {
       val modifiers = field.getModifiers();
-      if (isFinal(modifiers) || isStatic(modifiers)) {
-        continue;
+      return !isStatic(modifiers) && (record || !isFinal(modifiers)) && !field.isSynthetic();
+    }
+
+    private static boolean isRecord (Class<?> type) {
+      val superclass = type.getSuperclass();
+      return superclass != null && "java.lang.Record".equals(superclass.getName());
+    }
+
+    @SneakyThrows
+    @SuppressFBWarnings("DP_DO_INSIDE_DO_PRIVILEGED")
+    @SuppressWarnings("PMD.AvoidAccessibilityAlteration")
+    private static MethodHandle accessor (MethodHandles.Lookup lookup, Field field, boolean record) {
+      val getter = findGetter(field, record);
+      if (getter != null) {
+        return lookup.unreflect(getter).asType(ACCESSOR_TYPE);
       }
       field.setAccessible(true);
+      return lookup.unreflectGetter(field).asType(ACCESSOR_TYPE);
+    }
 
-      val fieldValue = field.get(object);
-      if (fieldValue == null) {
-        continue;
+    private static Method findGetter (Field field, boolean record) {
+      val type = field.getDeclaringClass();
+      if (!isPublic(type.getModifiers())) {
+        return null;
       }
 
-      val propertyKey = field.isAnnotationPresent(FormProperty.class)
-                        ? field.getAnnotation(FormProperty.class).value()
-                        : field.getName();
+      val name = field.getName();
+      val capitalized = name.substring(0, 1).toUpperCase(Locale.ENGLISH) + name.substring(1);
+      val candidates = new ArrayList<String>(3);
+      if (record) {
+        candidates.add(name);
+      }
+      candidates.add("get" + capitalized);
+      if (field.getType() == boolean.class) {
+        candidates.add("is" + capitalized);
+      }
 
-      result.put(propertyKey, fieldValue);
+      for (val candidate : candidates) {
+        try {
+          val method = type.getDeclaredMethod(candidate);
+          val modifiers = method.getModifiers();
+          if (isPublic(modifiers) && !isStatic(modifiers) && method.getReturnType() == field.getType()) {
+            return method;
+          }
+        } catch (NoSuchMethodException ex) {
+          continue;
+        }
+      }
+      return null;
     }
-    return result;
   }
 
-  private PojoUtil () throws UnexpectedException {
-    throw new UnexpectedException("It is not allowed to instantiate this class");
+  @Value
+  private static final class Property {
+
+    String name;
+
+    MethodHandle accessor;
   }
 
-  @Setter
-  @NoArgsConstructor
-  @FieldDefaults(level = PRIVATE)
-  private static final class SetAccessibleAction implements PrivilegedAction<Object> {
+  @RequiredArgsConstructor
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class PropertyMap extends AbstractMap<String, Object> {
+
+    Property[] properties;
+
+    Object[] values;
 
-    @Nullable
-    Field field;
+    int size;
 
     @Override
-    public Object run () {
-      field.setAccessible(true);
+    public int size () {
+      return size;
+    }
+
+    @Override
+    public Object get (Object key) {
+      for (int index = 0; index < properties.length; index++) {
+        if (values[index] != null && properties[index].getName().equals(key)) {
+          return values[index];
+        }
+      }
       return null;
     }
+
+    @Override
+    public boolean containsKey (Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet () {
+      return new AbstractSet<Entry<String, Object>>() {
+
+        @Override
+        public int size () {
+          return size;
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator () {
+          return new EntryIterator();
+        }
+      };
+    }
+
+    @FieldDefaults(level = PRIVATE)
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+      int next = skipNulls(0);
+
+      @Override
+      public boolean hasNext () {
+        return next < values.length;
+      }
+
+      @Override
+      public Entry<String, Object> next () {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        val index = next;
+        next = skipNulls(index + 1);
+        return new SimpleImmutableEntry<>(properties[index].getName(), values[index]);
+      }
+
+      private int skipNulls (int from) {
+        int index = from;
+        while (index < values.length && values[index] == null) {
+          index++;
+        }
+        return index;
+      }
+    }
   }
 }
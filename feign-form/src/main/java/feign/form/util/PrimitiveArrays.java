@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import java.rmi.UnexpectedException;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+
+/**
+ * An utility class to work with arrays of primitives without boxing their elements.
+ *
+ * @author Artem Labazin
+ */
+public final class PrimitiveArrays {
+
+  /**
+   * Checks, if the value is an array of primitives.
+   *
+   * @param value value to check.
+   *
+   * @return {@code true} if the value is a primitive array.
+   */
+  public static boolean isPrimitiveArray (Object value) {
+    return value != null && value.getClass().isArray() && value.getClass().getComponentType().isPrimitive();
+  }
+
+  /**
+   * Passes the text representation of every array element to the action. The same
+   * {@link CharSequence} instance is reused for all elements, so the action must not hold it.
+   *
+   * @param array  array of primitives.
+   * @param action an action for the element's text.
+   *
+   * @throws IllegalArgumentException if the value is not an array of primitives.
+   */
+  public static void forEach (@NonNull Object array, @NonNull Consumer<CharSequence> action) {
+    StringBuilder text = new StringBuilder(32);
+    if (array instanceof int[]) {
+      forEach((int[]) array, text, action);
+    } else if (array instanceof long[]) {
+      forEach((long[]) array, text, action);
+    } else if (array instanceof short[]) {
+      forEach((short[]) array, text, action);
+    } else if (array instanceof byte[]) {
+      forEach((byte[]) array, text, action);
+    } else if (array instanceof double[]) {
+      forEach((double[]) array, text, action);
+    } else if (array instanceof float[]) {
+      forEach((float[]) array, text, action);
+    } else if (array instanceof boolean[]) {
+      forEach((boolean[]) array, text, action);
+    } else if (array instanceof char[]) {
+      forEach((char[]) array, text, action);
+    } else {
+      throw new IllegalArgumentException("Not a primitive array: " + array.getClass());
+    }
+  }
+
+  private static void forEach (int[] array, StringBuilder text, Consumer<CharSequence> action) {
+    for (int value : array) {
+      action.accept(clear(text).append(value));
+    }
+  }
+
+  private static void forEach (long[] array, StringBuilder text, Consumer<CharSequence> action) {
+    for (long value : array) {
+      action.accept(clear(text).append(value));
+    }
+  }
+
+  private static void forEach (short[] array, StringBuilder text, Consumer<CharSequence> action) {
+    for (short value : array) {
+      action.accept(clear(text).append(value));
+    }
+  }
+
+  private static void forEach (byte[] array, StringBuilder text, Consumer<CharSequence> action) {
+    for (byte value : array) {
+      action.accept(clear(text).append(value));
+    }
+  }
+
+  private static void forEach (double[] array, StringBuilder text, Consumer<CharSequence> action) {
+    for (double value : array) {
+      action.accept(clear(text).append(value));
+    }
+  }
+
+  private static void forEach (float[] array, StringBuilder text, Consumer<CharSequence> action) {
+    for (float value : array) {
+      action.accept(clear(text).append(value));
+    }
+  }
+
+  private static void forEach (boolean[] array, StringBuilder text, Consumer<CharSequence> action) {
+    for (boolean value : array) {
+      action.accept(clear(text).append(value));
+    }
+  }
+
+  private static void forEach (char[] array, StringBuilder text, Consumer<CharSequence> action) {
+    for (char value : array) {
+      action.accept(clear(text).append(value));
+    }
+  }
+
+  private static StringBuilder clear (StringBuilder text) {
+    text.setLength(0);
+    return text;
+  }
+
+  private PrimitiveArrays () throws UnexpectedException {
+    throw new UnexpectedException("It is not allowed to instantiate this class");
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.rmi.UnexpectedException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Closes the resources (like temporary files) of the objects, which were garbage collected
+ * without being closed - a Java 8 compatible analogue of {@code java.lang.ref.Cleaner}.
+ * <p>
+ * The abandoned resources are closed by a single daemon thread as soon as their owners
+ * become phantom reachable, so they don't wait for the next resource's creation or the JVM exit.
+ *
+ * @author Artem Labazin
+ */
+public final class ResourceReaper {
+
+  static final ReferenceQueue<Object> ABANDONED = new ReferenceQueue<>();
+
+  static final Set<Registration> REGISTRATIONS = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+  static {
+    Thread thread = new Thread(ResourceReaper::reap, "feign-form-resource-reaper");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Registers the owner's resource, which is closed, when the owner is garbage collected.
+   * The owner should close the registration instead of the resource itself.
+   *
+   * @param owner    the object, which owns the resource; the resource must not reference it.
+   * @param resource the resource.
+   *
+   * @return the registration, which closes the resource explicitly.
+   */
+  public static Registration register (Object owner, Closeable resource) {
+    Registration registration = new Registration(owner, resource);
+    REGISTRATIONS.add(registration);
+    return registration;
+  }
+
+  private static void reap () {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        ((Registration) ABANDONED.remove()).close();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } catch (IOException | RuntimeException ex) {
+        // nobody waits for the abandoned resource, so the error is only reported
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+      }
+    }
+  }
+
+  private ResourceReaper () throws UnexpectedException {
+    throw new UnexpectedException("It is not allowed to instantiate this class");
+  }
+
+  /**
+   * A registered resource.
+   */
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  public static final class Registration extends PhantomReference<Object> implements Closeable {
+
+    Closeable resource;
+
+    Registration (Object owner, Closeable resource) {
+      super(owner, ABANDONED);
+      this.resource = resource;
+    }
+
+    /**
+     * Closes the resource, unless it is already closed, and unregisters it.
+     *
+     * @throws IOException in case of the resource closing error.
+     */
+    @Override
+    public void close () throws IOException {
+      if (REGISTRATIONS.remove(this)) {
+        clear();
+        resource.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * A lock-free histogram of sizes, which predicts the next size.
+ * <p>
+ * The sizes are counted in logarithmic buckets, four buckets per power of two,
+ * so a prediction exceeds the real size by 25% at most. The prediction is the upper bound
+ * of the bucket, which covers the 95th percentile of the recorded sizes. If the last sizes
+ * were the same, exactly this size is predicted. The counts are halved from time to time,
+ * so the histogram follows the changes of the sizes.
+ *
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class SizeHistogram {
+
+  private static final int SUB_BUCKET_BITS = 2;
+
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int BUCKETS = Integer.SIZE << SUB_BUCKET_BITS;
+
+  private static final int MIN_SAMPLES = 4;
+
+  private static final int DECAY_THRESHOLD = 1024;
+
+  private static final int PERCENTILE = 95;
+
+  private static final int PERCENTS = 100;
+
+  AtomicIntegerArray counts = new AtomicIntegerArray(BUCKETS);
+
+  AtomicInteger total = new AtomicInteger();
+
+  AtomicInteger lastSize = new AtomicInteger(-1);
+
+  AtomicInteger repeats = new AtomicInteger();
+
+  AtomicInteger prediction = new AtomicInteger(-1);
+
+  /**
+   * Records the size and updates the prediction.
+   *
+   * @param size a non-negative size.
+   */
+  public void record (int size) {
+    if (size < 0) {
+      return;
+    }
+    if (lastSize.getAndSet(size) == size) {
+      repeats.incrementAndGet();
+    } else {
+      repeats.set(0);
+    }
+    counts.incrementAndGet(bucket(size));
+    if (total.incrementAndGet() >= DECAY_THRESHOLD) {
+      decay();
+    }
+    prediction.set(computePrediction());
+  }
+
+  /**
+   * Returns the predicted size.
+   *
+   * @return the predicted size, or {@code -1}, if there are not enough recorded sizes yet.
+   */
+  public int predict () {
+    return prediction.get();
+  }
+
+  private int computePrediction () {
+    if (repeats.get() >= MIN_SAMPLES) {
+      return lastSize.get();
+    }
+    val samples = total.get();
+    if (samples < MIN_SAMPLES) {
+      return -1;
+    }
+    val threshold = (long) samples * PERCENTILE / PERCENTS;
+    long accumulated = 0;
+    for (int index = 0; index < BUCKETS; index++) {
+      accumulated += counts.get(index);
+      if (accumulated >= threshold) {
+        return upperBound(index);
+      }
+    }
+    return -1;
+  }
+
+  private void decay () {
+    int remaining = 0;
+    for (int index = 0; index < BUCKETS; index++) {
+      val count = counts.get(index) >> 1;
+      counts.set(index, count);
+      remaining += count;
+    }
+    total.set(remaining);
+  }
+
+  static int bucket (int size) {
+    if (size < SUB_BUCKETS) {
+      return size;
+    }
+    val exponent = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(size);
+    val subBucket = size >>> exponent - SUB_BUCKET_BITS & SUB_BUCKETS - 1;
+    return exponent - 1 << SUB_BUCKET_BITS | subBucket;
+  }
+
+  static int upperBound (int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    val exponent = (bucket >> SUB_BUCKET_BITS) + 1;
+    val subBucket = bucket & SUB_BUCKETS - 1;
+    long bound = (long) (SUB_BUCKETS | subBucket) + 1 << exponent - SUB_BUCKET_BITS;
+    return (int) (bound - 1); // the last bucket's bound is exactly Integer.MAX_VALUE
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import feign.Feign;
+import feign.Headers;
+import feign.RequestLine;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+
+class FormEncoderTest {
+
+  @Test
+  void learnedBufferSizes () {
+    val encoder = new FormEncoder();
+    val client = Feign.builder()
+        .encoder(encoder)
+        .client((request, options) -> Response.builder()
+            .status(200)
+            .request(request)
+            .headers(Collections.emptyMap())
+            .body("ok", UTF_8)
+            .build())
+        .target(Api.class, "http://localhost:8080");
+
+    val data = new HashMap<String, Object>();
+    data.put("key", "value");
+    for (int index = 0; index < 5; index++) {
+      client.send(data);
+    }
+
+    assertThat(encoder.getLearnedBufferSizes())
+      .containsExactly(entry("Api#send(Map) http://localhost:8080", "key=value".length()));
+  }
+
+  @Test
+  void emptyTarget () {
+    val encoder = new FormEncoder();
+    val client = Feign.builder()
+        .encoder(encoder)
+        .client((request, options) -> Response.builder()
+            .status(200)
+            .request(request)
+            .headers(Collections.emptyMap())
+            .body("ok", UTF_8)
+            .build())
+        .target(Target.EmptyTarget.create(UriApi.class));
+
+    val data = new HashMap<String, Object>();
+    data.put("key", "value");
+    for (int index = 0; index < 5; index++) {
+      assertThat(client.send(URI.create("http://localhost:8080"), data))
+        .isEqualTo("ok");
+    }
+
+    assertThat(encoder.getLearnedBufferSizes())
+      .containsExactly(entry("UriApi#send(URI,Map) ", "key=value".length()));
+  }
+
+  @Test
+  void resolvedContentTypes () {
+    val delegated = new ArrayList<Object>();
+    val encoder = new FormEncoder((object, bodyType, template) -> delegated.add(object));
+    val data = Collections.<String, Object>singletonMap("key", "caf" + (char) 0xE9);
+
+    for (int index = 0; index < 2; index++) {
+      val template = new RequestTemplate();
+      template.header("content-type", "application/x-www-form-urlencoded; charset=ISO-8859-1");
+      encoder.encode(data, Map.class, template);
+
+      assertThat(template.body())
+        .asString(ISO_8859_1)
+        .isEqualTo("key=caf%E9");
+    }
+
+    val json = new RequestTemplate();
+    json.header("Content-Type", "application/json");
+    encoder.encode(data, Map.class, json);
+    encoder.encode(data, Map.class, new RequestTemplate());
+
+    assertThat(delegated)
+      .containsExactly(data, data);
+  }
+
+  interface Api {
+
+    @RequestLine("POST")
+    @Headers("Content-Type: application/x-www-form-urlencoded")
+    String send (Map<String, Object> data);
+  }
+
+  interface UriApi {
+
+    @RequestLine("POST")
+    @Headers("Content-Type: application/x-www-form-urlencoded")
+    String send (URI uri, Map<String, Object> data);
+  }
+}
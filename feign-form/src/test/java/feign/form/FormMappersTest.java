@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class FormMappersTest {
+
+  @Test
+  void brokenProvidersAreSkipped () {
+    assertThat(FormMappers.find(Point.class))
+      .isInstanceOf(PointMapper.class);
+    assertThat(FormMappers.find(Broken.class))
+      .isNull();
+  }
+
+  static class Point {
+
+    int value;
+  }
+
+  static class Broken {
+  }
+
+  public static class PointMapper implements FormMapper<Point> {
+
+    @Override
+    public Class<Point> getType () {
+      return Point.class;
+    }
+
+    @Override
+    public Map<String, Object> toMap (Point object) {
+      return singletonMap("value", object.value);
+    }
+  }
+
+  public static class BrokenMapper implements FormMapper<Broken> {
+
+    @Override
+    public Class<Broken> getType () {
+      throw new IllegalStateException("broken");
+    }
+
+    @Override
+    public Map<String, Object> toMap (Broken object) {
+      return singletonMap("broken", true);
+    }
+  }
+}
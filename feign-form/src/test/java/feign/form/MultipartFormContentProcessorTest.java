@@ -0,0 +1,265 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import static feign.form.util.MemoryBudget.Overflow.FAIL;
+import static feign.form.util.MemoryBudget.Overflow.SPILL;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import feign.Client;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.RequestTemplate;
+import feign.codec.Encoder;
+import feign.form.multipart.BoundaryCollisionException;
+import feign.form.multipart.RandomBoundaryGenerator;
+import feign.form.util.BufferPool;
+import feign.form.util.MemoryBudget;
+import feign.form.util.MemoryBudgetExceededException;
+
+class MultipartFormContentProcessorTest {
+
+  private final MultipartFormContentProcessor processor = new MultipartFormContentProcessor(new Encoder.Default());
+
+  @Test
+  @SneakyThrows
+  void exactSize () {
+    val file = File.createTempFile("feign-form", ".txt");
+    try {
+      Files.write(file.toPath(), "file's content".getBytes(UTF_8));
+
+      val data = new LinkedHashMap<String, Object>();
+      data.put("bytes", new byte[] { 1, 2, 3 });
+      data.put("file", file);
+      data.put("formData", new FormData("text/plain", "файл.txt", "Привет 😀".getBytes(UTF_8)));
+      data.put("text", "ключ 😀 value");
+      data.put("numbers", new int[] { 1, 22, 333 });
+      data.put("strings", new String[] { "a", "bc" });
+
+      assertExactSize(UTF_8, data);
+      assertExactSize(Charset.forName("windows-1251"), data);
+      assertExactSize(Charset.forName("UTF-16"), data);
+    } finally {
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  @Test
+  void emptyData () {
+    assertExactSize(UTF_8, new LinkedHashMap<>());
+  }
+
+  @Test
+  void delegatedValuesAreNotSized () {
+    val data = new LinkedHashMap<String, Object>();
+    data.put("text", "value");
+    data.put("delegated", new Date(42));
+
+    assertThat(processor.estimateSize(UTF_8, data, "boundary"))
+      .isEqualTo(-1);
+  }
+
+  @Test
+  void pooledBuffers () {
+    val data = new LinkedHashMap<String, Object>();
+    data.put("text", "value");
+    data.put("bytes", new byte[] { 1, 2, 3 });
+
+    val pool = new BufferPool(1024 * 1024);
+    processor.setBufferPool(pool);
+    try {
+      assertExactSize(UTF_8, data);
+      assertExactSize(UTF_8, data);
+      assertThat(pool.getRetainedBytes())
+        .isPositive();
+    } finally {
+      processor.setBufferPool(null);
+    }
+  }
+
+  @Test
+  void memoryBudget () {
+    val data = new LinkedHashMap<String, Object>();
+    for (int index = 0; index < 1000; index++) {
+      data.put("key" + index, "value " + index);
+    }
+
+    val custom = new MultipartFormContentProcessor(new Encoder.Default());
+    val budget = new MemoryBudget(64 * 1024, FAIL);
+    custom.setMemoryBudget(budget);
+    assertThatThrownBy(() -> custom.process(new RequestTemplate(), UTF_8, data))
+      .isInstanceOf(MemoryBudgetExceededException.class);
+    assertThat(budget.getUsedBytes())
+      .isZero();
+
+    val spilling = new MemoryBudget(64 * 1024, SPILL);
+    custom.setMemoryBudget(spilling);
+    val template = new RequestTemplate();
+    custom.process(template, UTF_8, data);
+    assertThat(template.body())
+      .hasSize((int) processor.estimateSize(UTF_8, data, custom.getBoundaryGenerator().generate()));
+    assertThat(spilling.getUsedBytes())
+      .isZero();
+  }
+
+  @Test
+  void randomBoundaries () {
+    val generator = new RandomBoundaryGenerator();
+    val boundaries = new HashSet<String>();
+    for (int index = 0; index < 1000; index++) {
+      boundaries.add(generator.generate());
+    }
+
+    assertThat(boundaries)
+      .hasSize(1000)
+      .allMatch(it -> it.matches("[0-9a-f]{32}"));
+  }
+
+  @Test
+  void customBoundaryGenerator () {
+    val custom = new MultipartFormContentProcessor(new Encoder.Default());
+    custom.setBoundaryGenerator(() -> "fixed");
+
+    val template = new RequestTemplate();
+    custom.process(template, UTF_8, singletonMap("text", "value"));
+
+    assertThat(template.headers().get("Content-Type"))
+      .containsExactly("multipart/form-data; charset=UTF-8; boundary=fixed");
+    assertThat(template.body())
+      .asString(UTF_8)
+      .startsWith("--fixed\r\n")
+      .endsWith("--fixed--\r\n");
+  }
+
+  @Test
+  @SneakyThrows
+  void boundaryCollisions () {
+    val custom = new MultipartFormContentProcessor(new Encoder.Default());
+    custom.setBoundaryGenerator(() -> "abc");
+    custom.setBoundaryCheck(true);
+
+    custom.process(new RequestTemplate(), UTF_8, singletonMap("text", "-ab--abd--ab-c"));
+
+    assertThatThrownBy(() -> custom.process(new RequestTemplate(), UTF_8, singletonMap("text", "x---abcx")))
+      .isInstanceOf(BoundaryCollisionException.class);
+    assertThatThrownBy(() -> custom.process(new RequestTemplate(), UTF_8, singletonMap("bytes", "--abc".getBytes(UTF_8))))
+      .isInstanceOf(BoundaryCollisionException.class);
+
+    val file = File.createTempFile("feign-form", ".txt");
+    try {
+      Files.write(file.toPath(), "content\r\n--abc\r\n".getBytes(UTF_8));
+
+      assertThatThrownBy(() -> custom.process(new RequestTemplate(), UTF_8, singletonMap("file", file)))
+        .isInstanceOf(BoundaryCollisionException.class)
+        .hasMessageContaining("'abc'");
+    } finally {
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  @Test
+  void collidedBoundaryIsRegenerated () {
+    val boundaries = new ArrayDeque<String>(asList("abc", "xyz"));
+    val custom = new MultipartFormContentProcessor(new Encoder.Default());
+    custom.setBoundaryGenerator(boundaries::poll);
+    custom.setBoundaryCheck(true);
+
+    val template = new RequestTemplate();
+    custom.process(template, UTF_8, singletonMap("text", "x--abc"));
+
+    assertThat(template.headers().get("Content-Type"))
+      .containsExactly("multipart/form-data; charset=UTF-8; boundary=xyz");
+    assertThat(template.body())
+      .asString(UTF_8)
+      .contains("x--abc")
+      .endsWith("--xyz--\r\n");
+  }
+
+  @Test
+  void streamingBodyIsRejectedByOtherClients () {
+    val custom = new MultipartFormContentProcessor(new Encoder.Default());
+    custom.setStreaming(true);
+
+    val template = new RequestTemplate().method(HttpMethod.POST);
+    custom.process(template, UTF_8, singletonMap("text", "value"));
+    assertThat(template.body())
+      .isEmpty();
+
+    val request = template.resolve(emptyMap()).target("http://localhost").request();
+    assertThatThrownBy(() -> new Client.Default(null, null).execute(request, new Options()))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("requires StreamingClient");
+  }
+
+  @Test
+  void streamingReservationIsHeldUntilRelease () throws Exception {
+    val data = new LinkedHashMap<String, Object>();
+    for (int index = 0; index < 1000; index++) {
+      data.put("key" + index, "value " + index);
+    }
+
+    val custom = new MultipartFormContentProcessor(new Encoder.Default());
+    custom.setStreaming(true);
+    val budget = new MemoryBudget(1024 * 1024, FAIL);
+    custom.setMemoryBudget(budget);
+
+    val template = new RequestTemplate().method(HttpMethod.POST);
+    custom.process(template, UTF_8, data);
+    assertThat(budget.getUsedBytes())
+      .isPositive();
+
+    val request = template.resolve(emptyMap()).target("http://localhost").request();
+    StreamingBodies.release(request);
+    assertThat(budget.getUsedBytes())
+      .isZero();
+    assertThat(StreamingBodies.find(request))
+      .isNull();
+
+    StreamingBodies.release(request);
+    assertThat(budget.getUsedBytes())
+      .isZero();
+  }
+
+  private void assertExactSize (Charset charset, Map<String, Object> data) {
+    // the random boundaries have the same length
+    val estimated = processor.estimateSize(charset, data, processor.getBoundaryGenerator().generate());
+
+    val template = new RequestTemplate();
+    processor.process(template, charset, data);
+
+    assertThat(template.body())
+      .hasSize((int) estimated);
+  }
+}
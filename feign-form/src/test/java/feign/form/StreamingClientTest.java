@@ -0,0 +1,171 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import static feign.Logger.Level.FULL;
+import static feign.form.ContentType.MULTIPART;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.DEFINED_PORT;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import feign.Client;
+import feign.Feign;
+import feign.FeignException;
+import feign.Logger.JavaLogger;
+import feign.Response;
+import feign.RetryableException;
+import feign.Retryer;
+import feign.jackson.JacksonEncoder;
+
+@SpringBootTest(
+  webEnvironment = DEFINED_PORT,
+  classes = Server.class
+)
+class StreamingClientTest {
+
+  private static final TestClient API;
+
+  static {
+    val encoder = new FormEncoder(new JacksonEncoder());
+    val processor = (MultipartFormContentProcessor) encoder.getContentProcessor(MULTIPART);
+    processor.setStreaming(true);
+
+    API = Feign.builder()
+        .client(new StreamingClient())
+        .responseInterceptor(new StreamingResponseInterceptor())
+        .encoder(encoder)
+        .logger(new JavaLogger(StreamingClientTest.class).appendToFile("log.txt"))
+        .logLevel(FULL)
+        .target(TestClient.class, "http://localhost:8080");
+  }
+
+  @Test
+  void testUploadWithParam () throws Exception {
+    val path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("file.txt").toURI());
+    assertThat(path)
+      .exists();
+
+    assertThat(API.upload(10, Boolean.TRUE, path.toFile()))
+      .asLong()
+      .isEqualTo(Files.size(path));
+  }
+
+  @Test
+  void testMultipleFilesList () throws Exception {
+    val path1 = Paths.get(Thread.currentThread().getContextClassLoader().getResource("file.txt").toURI());
+    val path2 = Paths.get(Thread.currentThread().getContextClassLoader().getResource("another_file.txt").toURI());
+
+    assertThat(API.uploadWithList(asList(path1.toFile(), path2.toFile())))
+      .asLong()
+      .isEqualTo(Files.size(path1) + Files.size(path2));
+  }
+
+  @Test
+  void testNotStreamedRequest () {
+    assertThat(API.form("1", "1"))
+      .isNotNull()
+      .extracting(Response::status)
+      .isEqualTo(200);
+  }
+
+  @Test
+  void spillFileIsReleasedAfterErrorResponse () throws Exception {
+    val encoder = new FormEncoder(new JacksonEncoder());
+    val processor = (MultipartFormContentProcessor) encoder.getContentProcessor(MULTIPART);
+    processor.setStreaming(true);
+    processor.setSpillThreshold(1);
+
+    val api = Feign.builder()
+        .client(new StreamingClient())
+        .responseInterceptor(new StreamingResponseInterceptor())
+        .encoder(encoder)
+        .target(TestClient.class, "http://localhost:8080");
+
+    val path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("file.txt").toURI());
+    val before = countSpillFiles();
+
+    assertThatThrownBy(() -> api.upload(11, Boolean.TRUE, path.toFile()))
+      .isInstanceOf(FeignException.class);
+
+    assertThat(countSpillFiles())
+      .isEqualTo(before);
+  }
+
+  @Test
+  void streamingBodyIsNotSentByOtherClients () throws Exception {
+    val encoder = new FormEncoder(new JacksonEncoder());
+    val processor = (MultipartFormContentProcessor) encoder.getContentProcessor(MULTIPART);
+    processor.setStreaming(true);
+
+    val api = Feign.builder()
+        .client(new Client.Default(null, null))
+        .encoder(encoder)
+        .target(TestClient.class, "http://localhost:8080");
+
+    val path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("file.txt").toURI());
+    assertThatThrownBy(() -> api.upload(10, Boolean.TRUE, path.toFile()))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void retriedRequestKeepsStreamingBody () throws Exception {
+    val encoder = new FormEncoder(new JacksonEncoder());
+    val processor = (MultipartFormContentProcessor) encoder.getContentProcessor(MULTIPART);
+    processor.setStreaming(true);
+    processor.setSpillThreshold(1);
+
+    val attempts = new AtomicInteger();
+    val api = Feign.builder()
+        .client(new StreamingClient())
+        .responseInterceptor(new StreamingResponseInterceptor())
+        .errorDecoder((methodKey, response) -> {
+          attempts.incrementAndGet();
+          // retries the response without Retry-After header
+          return new RetryableException(response.status(), "locked", response.request().httpMethod(),
+                                        (Long) null, response.request());
+        })
+        .retryer(new Retryer.Default(1, 1, 3))
+        .encoder(encoder)
+        .target(TestClient.class, "http://localhost:8080");
+
+    val path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("file.txt").toURI());
+    assertThatThrownBy(() -> api.upload(11, Boolean.TRUE, path.toFile()))
+      .isInstanceOf(RetryableException.class);
+    assertThat(attempts.get())
+      .isEqualTo(3);
+  }
+
+  private static long countSpillFiles () throws Exception {
+    try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+      return files
+          .filter(it -> it.getFileName().toString().startsWith("feign-form-"))
+          .filter(it -> it.getFileName().toString().endsWith(".spill"))
+          .count();
+    }
+  }
+}
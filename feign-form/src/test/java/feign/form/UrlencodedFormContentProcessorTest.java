@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form;
+
+import static feign.form.util.MemoryBudget.Overflow.FAIL;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import feign.RequestTemplate;
+import feign.form.util.BufferPool;
+import feign.form.util.MemoryBudget;
+import feign.form.util.MemoryBudgetExceededException;
+
+class UrlencodedFormContentProcessorTest {
+
+  private final UrlencodedFormContentProcessor processor = new UrlencodedFormContentProcessor();
+
+  @Test
+  void primitiveArrays () {
+    val data = new LinkedHashMap<String, Object>();
+    data.put("ints", new int[] { 1, -2 });
+    data.put("longs", new long[] { Long.MIN_VALUE });
+    data.put("doubles", new double[] { 1.5, -0.25 });
+    data.put("flags", new boolean[] { true });
+    data.put("chars", new char[] { 'a', ' ', '&' });
+
+    assertThat(encode(data))
+      .isEqualTo("ints=1&ints=-2&longs=-9223372036854775808&doubles=1.5&doubles=-0.25&flags=true&chars=a&chars=+&chars=%26");
+  }
+
+  @Test
+  void overriddenProcessIsCalled () {
+    val custom = new UrlencodedFormContentProcessor() {
+
+      @Override
+      public void process (RequestTemplate template, Charset charset, Map<String, Object> data) {
+        val extended = new LinkedHashMap<String, Object>(data);
+        extended.put("added", "by subclass");
+        super.process(template, charset, extended);
+      }
+    };
+
+    val template = new RequestTemplate();
+    val buffered = custom.process(template, UTF_8, singletonMap("key", "value"), 64);
+
+    assertThat(template.body())
+      .asString(UTF_8)
+      .isEqualTo("key=value&added=by+subclass");
+    assertThat(buffered)
+      .isNegative();
+  }
+
+  @Test
+  void objectArraysAndCollections () {
+    val data = new LinkedHashMap<String, Object>();
+    data.put("array", new Object[] { null, "x y" });
+    data.put("list", Arrays.asList(1, null, 2));
+    data.put("empty", null);
+
+    assertThat(encode(data))
+      .isEqualTo("array=x+y&list=1&list=2&empty");
+  }
+
+  @Test
+  void pooledBuffers () {
+    val data = new LinkedHashMap<String, Object>();
+    data.put("key", "value");
+    val expected = encode(data);
+
+    val pool = new BufferPool(1024 * 1024);
+    processor.setBufferPool(pool);
+    try {
+      assertThat(encode(data))
+        .isEqualTo(expected);
+      assertThat(encode(data))
+        .isEqualTo(expected);
+      assertThat(pool.getRetainedBytes())
+        .isPositive();
+    } finally {
+      processor.setBufferPool(null);
+    }
+  }
+
+  private String encode (Map<String, Object> data) {
+    val template = new RequestTemplate();
+    processor.process(template, UTF_8, data);
+    return new String(template.body(), UTF_8);
+  }
+
+  @Test
+  void memoryBudget () {
+    val budget = new MemoryBudget(64 * 1024, FAIL);
+    val custom = new UrlencodedFormContentProcessor();
+    custom.setMemoryBudget(budget);
+
+    val template = new RequestTemplate();
+    custom.process(template, UTF_8, singletonMap("key", "value"));
+    assertThat(new String(template.body(), UTF_8))
+      .isEqualTo("key=value");
+    assertThat(budget.getUsedBytes())
+      .isZero();
+
+    val data = new LinkedHashMap<String, Object>();
+    for (int index = 0; index < 100; index++) {
+      data.put("key" + index, String.join("", Collections.nCopies(1000, "x")));
+    }
+    assertThatThrownBy(() -> custom.process(new RequestTemplate(), UTF_8, data))
+      .isInstanceOf(MemoryBudgetExceededException.class);
+    assertThat(budget.getUsedBytes())
+      .isZero();
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.Date;
+
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import feign.RequestTemplate;
+import feign.codec.Encoder;
+import feign.form.MultipartFormContentProcessor;
+
+class DelegateWriterTest {
+
+  @Test
+  void plainEncoder () {
+    val output = new Output(UTF_8);
+    new DelegateWriter(new Encoder.Default()).write(output, "boundary", "text", "line 1\nline 2");
+
+    assertThat(output.toByteArray())
+      .asString(UTF_8)
+      .isEqualTo("--boundary\r\n" +
+                 "Content-Disposition: form-data; name=\"text\"\r\n" +
+                 "Content-Type: text/plain; charset=UTF-8\r\n" +
+                 "\r\n" +
+                 "line 1\nline 2\r\n");
+  }
+
+  @Test
+  void delegateContentType () {
+    Encoder encoder = (object, bodyType, template) -> {
+      template.header("Content-Type", "application/xml");
+      template.body("<value/>");
+    };
+    val output = new Output(UTF_8);
+    new DelegateWriter(encoder).write(output, "boundary", "xml", new Object());
+
+    assertThat(output.toByteArray())
+      .asString(UTF_8)
+      .contains("Content-Type: application/xml\r\n\r\n<value/>\r\n");
+  }
+
+  @Test
+  void streamingEncoder () {
+    val output = new Output(UTF_8);
+    new DelegateWriter(new JsonEncoder()).write(output, "boundary", "date", new Date(42));
+
+    assertThat(output.toByteArray())
+      .asString(UTF_8)
+      .isEqualTo("--boundary\r\n" +
+                 "Content-Disposition: form-data; name=\"date\"\r\n" +
+                 "Content-Type: application/json\r\n" +
+                 "\r\n" +
+                 "{\"time\":42}\r\n");
+  }
+
+  @Test
+  void delegateIsNotRunForSizing () {
+    val encoder = new JsonEncoder();
+    val processor = new MultipartFormContentProcessor(encoder);
+    val data = singletonMap("date", (Object) new Date(42));
+
+    assertThat(processor.estimateSize(UTF_8, data, "boundary"))
+      .isEqualTo(-1);
+    assertThat(encoder.calls)
+      .isZero();
+  }
+
+  @Test
+  void streamingEncoderAsRegularEncoder () {
+    val template = new RequestTemplate();
+    new JsonEncoder().encode(new Date(42), Date.class, template);
+
+    assertThat(template.body())
+      .asString(UTF_8)
+      .isEqualTo("{\"time\":42}");
+  }
+
+  private static final class JsonEncoder implements StreamingEncoder {
+
+    int calls;
+
+    @Override
+    public String getContentType () {
+      return "application/json";
+    }
+
+    @Override
+    @SneakyThrows
+    public void encode (Object object, Type bodyType, Charset charset, OutputStream stream) {
+      calls++;
+      stream.write('{');
+      stream.write(("\"time\":" + ((Date) object).getTime()).getBytes(charset));
+      stream.write('}');
+    }
+  }
+}
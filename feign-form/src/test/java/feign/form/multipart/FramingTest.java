@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class FramingTest {
+
+  @Test
+  void parameterPart () {
+    val output = new Output(UTF_8);
+    new SingleParameterWriter().write(output, "boundary", "name", "value");
+
+    assertThat(output.toByteArray())
+      .asString(UTF_8)
+      .isEqualTo("--boundary\r\n" +
+                 "Content-Disposition: form-data; name=\"name\"\r\n" +
+                 "Content-Type: text/plain; charset=UTF-8\r\n" +
+                 "\r\n" +
+                 "value\r\n");
+  }
+
+  @Test
+  void fileHeaders () {
+    val framing = Framing.of(UTF_8);
+
+    assertThat(framing.fileHeader("file", "photo.png", "image/png"))
+      .asString(UTF_8)
+      .isEqualTo("Content-Disposition: form-data; name=\"file\"; filename=\"photo.png\"\r\n" +
+                 "Content-Type: image/png\r\n" +
+                 "Content-Transfer-Encoding: binary\r\n" +
+                 "\r\n");
+
+    assertThat(framing.fileHeader("data", null, null))
+      .asString(UTF_8)
+      .isEqualTo("Content-Disposition: form-data; name=\"data\"\r\n" +
+                 "Content-Type: application/octet-stream\r\n" +
+                 "Content-Transfer-Encoding: binary\r\n" +
+                 "\r\n");
+  }
+
+  @Test
+  void cachedHeaders () {
+    val framing = Framing.of(UTF_8);
+
+    assertThat(framing.parameterHeader("cached"))
+      .isSameAs(framing.parameterHeader("cached"));
+    assertThat(framing.fileHeader("cached", "a.txt", "text/plain"))
+      .isEqualTo(framing.fileHeader("cached", "a.txt", "text/plain"))
+      .isNotSameAs(framing.fileHeader("cached", "a.txt", "text/plain"));
+  }
+
+  @Test
+  void uniqueFileNamesDoNotFillCache () {
+    val framing = Framing.of(UTF_8);
+    for (int index = 0; index < 1000; index++) {
+      framing.fileHeader("file", "upload-" + index + ".bin", null);
+    }
+
+    assertThat(framing.parameterHeader("hot"))
+      .isSameAs(framing.parameterHeader("hot"));
+  }
+
+  @Test
+  void nonAsciiCompatibleCharset () {
+    val output = new Output(UTF_16BE);
+    val framing = Framing.of(UTF_16BE);
+    framing.writeDelimiter(output, "boundary");
+    framing.writeCloseDelimiter(output, "boundary");
+
+    assertThat(new String(output.toByteArray(), UTF_16BE))
+      .isEqualTo("--boundary\r\n--boundary--\r\n");
+  }
+}
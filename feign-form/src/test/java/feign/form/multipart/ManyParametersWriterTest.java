@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class ManyParametersWriterTest {
+
+  private final ManyParametersWriter writer = new ManyParametersWriter();
+
+  @Test
+  void primitiveArrays () {
+    assertSameAsBoxed(new int[] { 1, -2, Integer.MAX_VALUE }, asList(1, -2, Integer.MAX_VALUE));
+    assertSameAsBoxed(new long[] { Long.MIN_VALUE, 0L }, asList(Long.MIN_VALUE, 0L));
+    assertSameAsBoxed(new double[] { 1.5, Double.NaN }, asList(1.5, Double.NaN));
+    assertSameAsBoxed(new float[] { 0.1F }, asList(0.1F));
+    assertSameAsBoxed(new short[] { 7 }, asList((short) 7));
+    assertSameAsBoxed(new boolean[] { true, false }, asList(true, false));
+  }
+
+  @Test
+  void emptyPrimitiveArray () {
+    assertThat(writer.isApplicable(new int[0]))
+      .isFalse();
+  }
+
+  private void assertSameAsBoxed (Object array, Iterable<?> boxed) {
+    assertThat(writer.isApplicable(array))
+      .isTrue();
+
+    val expected = new Output(UTF_8);
+    writer.write(expected, "boundary", "values", boxed);
+    val actual = new Output(UTF_8);
+    writer.write(actual, "boundary", "values", array);
+
+    assertThat(actual.toByteArray())
+      .asString(UTF_8)
+      .isEqualTo(new String(expected.toByteArray(), UTF_8));
+  }
+}
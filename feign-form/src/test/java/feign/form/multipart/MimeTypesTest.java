@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class MimeTypesTest {
+
+  @Test
+  void defaultTypes () {
+    val types = MimeTypes.getDefault();
+
+    assertThat(types.resolve("photo.png"))
+      .isEqualTo("image/png");
+    assertThat(types.resolve("Report.Final.PDF"))
+      .isEqualTo("application/pdf");
+    assertThat(types.resolve("table.xlsx"))
+      .isEqualTo("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+    assertThat(types.resolve("file.abc"))
+      .isNull();
+    assertThat(types.resolve("README"))
+      .isNull();
+    assertThat(types.resolve("archive."))
+      .isNull();
+    assertThat(types.resolve(null))
+      .isNull();
+  }
+
+  @Test
+  void extraTypes () {
+    val types = MimeTypes.getDefault()
+        .with(singletonMap("ABC", "text/vnd.abc"))
+        .with(singletonMap("png", "image/x-custom-png"));
+
+    assertThat(types.resolve("file.abc"))
+      .isEqualTo("text/vnd.abc");
+    assertThat(types.resolve("photo.PNG"))
+      .isEqualTo("image/x-custom-png");
+    assertThat(types.resolve("photo.jpg"))
+      .isEqualTo("image/jpeg");
+    assertThat(MimeTypes.getDefault().resolve("file.abc"))
+      .isNull();
+  }
+
+  @Test
+  void writersUseOutputResolver () {
+    val output = new Output(UTF_8);
+    output.setMimeTypeResolver(fileName -> "application/x-custom");
+    new FormDataWriter().write(output, "boundary", "data", new feign.form.FormData(null, "data.json", new byte[0]));
+
+    assertThat(output.toByteArray())
+      .asString(UTF_8)
+      .contains("Content-Type: application/x-custom\r\n");
+  }
+}
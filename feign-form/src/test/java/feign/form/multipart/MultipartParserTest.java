@@ -0,0 +1,200 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import feign.RequestTemplate;
+import feign.codec.Encoder;
+import feign.form.FormData;
+import feign.form.MultipartFormContentProcessor;
+
+class MultipartParserTest {
+
+  @Test
+  @SneakyThrows
+  void parsesEncodedBody () {
+    val binary = new byte[300 * 1024];
+    new Random(42).nextBytes(binary);
+    // the partial delimiters inside the content
+    System.arraycopy("\r\n--fixed-boundar".getBytes(UTF_8), 0, binary, 1000, 17);
+    System.arraycopy("\r\n--fixed-".getBytes(UTF_8), 0, binary, binary.length - 10, 10);
+
+    val data = new LinkedHashMap<String, Object>();
+    data.put("text", "ключ 😀 value");
+    data.put("binary", new FormData("application/octet-stream", "файл.bin", binary));
+    data.put("empty", "");
+
+    val processor = new MultipartFormContentProcessor(new Encoder.Default());
+    processor.setBoundaryGenerator(() -> "fixed-boundary");
+    val template = new RequestTemplate();
+    processor.process(template, UTF_8, data);
+    val body = template.body();
+
+    for (val bufferSize : new int[] { 1, 100, 4096, 1024 * 1024 }) {
+      val parser = parser(body, bufferSize);
+
+      assertThat(parser.nextPart())
+        .isTrue();
+      assertThat(parser.getHeaders().get("content-disposition"))
+        .isEqualTo("form-data; name=\"text\"");
+      assertThat(read(parser))
+        .asString(UTF_8)
+        .isEqualTo("ключ 😀 value");
+
+      assertThat(parser.nextPart())
+        .isTrue();
+      assertThat(parser.getHeaders().get("Content-Disposition"))
+        .isEqualTo("form-data; name=\"binary\"; filename=\"файл.bin\"");
+      assertThat(parser.getHeaders().get("CONTENT-TYPE"))
+        .isEqualTo("application/octet-stream");
+      val content = new ByteArrayOutputStream();
+      assertThat(parser.transferTo(content))
+        .isEqualTo(binary.length);
+      assertThat(content.toByteArray())
+        .isEqualTo(binary);
+
+      assertThat(parser.nextPart())
+        .isTrue();
+      assertThat(read(parser))
+        .isEmpty();
+
+      assertThat(parser.nextPart())
+        .isFalse();
+      assertThat(parser.nextPart())
+        .isFalse();
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  void skipsPreambleEpilogueAndUnreadParts () {
+    val body = "preamble\r\n--b\r\n" +
+               "X-First: 1\r\n" +
+               "X-Folded: a\r\n" +
+               "\tb\r\n" +
+               "\r\n" +
+               "first part\r\n" +
+               "--b  \n" +
+               "\n" +
+               "second part\r\n" +
+               "--b--\r\n" +
+               "epilogue";
+    val parser = parser(body.getBytes(UTF_8), 16);
+
+    assertThat(parser.nextPart())
+      .isTrue();
+    assertThat(parser.getHeaders().get("x-folded"))
+      .isEqualTo("a b");
+    val stream = parser.getBodyStream();
+    assertThat(stream.read())
+      .isEqualTo('f');
+
+    assertThat(parser.nextPart())
+      .isTrue();
+    assertThat(stream.read())
+      .as("the previous part's stream ends")
+      .isEqualTo(-1);
+    assertThat(parser.getHeaders().size())
+      .isZero();
+    val buffer = ByteBuffer.allocate(100);
+    while (parser.read(buffer) >= 0) {
+      // reading the whole part
+    }
+    assertThat(new String(buffer.array(), 0, buffer.position(), UTF_8))
+      .isEqualTo("second part");
+
+    assertThat(parser.nextPart())
+      .isFalse();
+  }
+
+  @Test
+  @SneakyThrows
+  void readsSingleBytes () {
+    val parser = parser("--b\r\nX: 1\r\n\r\nfirst\r\r\n-part\r\n--b--\r\n".getBytes(UTF_8), 16);
+
+    assertThat(parser.nextPart())
+      .isTrue();
+    val stream = parser.getBodyStream();
+    val result = new ByteArrayOutputStream();
+    int value = stream.read();
+    while (value >= 0) {
+      result.write(value);
+      value = stream.read();
+    }
+    assertThat(new String(result.toByteArray(), UTF_8))
+      .isEqualTo("first\r\r\n-part");
+    assertThat(parser.read())
+      .isEqualTo(-1);
+
+    assertThat(parser.nextPart())
+      .isFalse();
+  }
+
+  @Test
+  void truncatedBody () {
+    val parser = parser("--b\r\nX: 1\r\n\r\ncontent\r\n--".getBytes(UTF_8), 16);
+
+    assertThatThrownBy(() -> {
+      parser.nextPart();
+      parser.nextPart();
+    })
+      .isInstanceOf(EOFException.class);
+  }
+
+  private static MultipartParser parser (byte[] body, int bufferSize) {
+    val boundary = body[0] == '-'
+                   ? new String(body, 2, indexOf(body, '\r') - 2, UTF_8)
+                   : "b";
+    val channel = Channels.newChannel(new ByteArrayInputStream(body));
+    return new MultipartParser(channel, boundary.getBytes(UTF_8), bufferSize, UTF_8);
+  }
+
+  private static int indexOf (byte[] bytes, char value) {
+    int index = 0;
+    while (bytes[index] != value) {
+      index++;
+    }
+    return index;
+  }
+
+  private static byte[] read (MultipartParser parser) throws IOException {
+    val result = new ByteArrayOutputStream();
+    val chunk = new byte[7];
+    int count = parser.read(chunk, 0, chunk.length);
+    while (count >= 0) {
+      result.write(chunk, 0, count);
+      count = parser.read(chunk, 0, chunk.length);
+    }
+    return result.toByteArray();
+  }
+}
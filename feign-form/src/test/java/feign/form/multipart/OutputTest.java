@@ -0,0 +1,339 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static feign.form.util.MemoryBudget.Overflow.FAIL;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import feign.codec.EncodeException;
+import feign.form.util.BufferPool;
+import feign.form.util.MemoryBudget;
+import feign.form.util.MemoryBudgetExceededException;
+
+class OutputTest {
+
+  @Test
+  @SneakyThrows
+  void segments () {
+    val large = new byte[64 * 1024];
+    Arrays.fill(large, (byte) 'x');
+    val file = File.createTempFile("feign-form", ".txt");
+    try {
+      Files.write(file.toPath(), "file".getBytes(UTF_8));
+
+      val output = new Output(UTF_8, true)
+          .write("header")
+          .write(large)
+          .write(new byte[] { '1', '2' })
+          .write(file)
+          .write("footer");
+
+      val expected = new ByteArrayOutputStream();
+      expected.write("header".getBytes(UTF_8));
+      expected.write(large);
+      expected.write("12filefooter".getBytes(UTF_8));
+
+      assertThat(output.size())
+        .isEqualTo(expected.size());
+      assertThat(output.toByteArray())
+        .isEqualTo(expected.toByteArray());
+
+      val stream = new ByteArrayOutputStream();
+      output.writeTo(stream);
+      assertThat(stream.toByteArray())
+        .isEqualTo(expected.toByteArray());
+
+      val target = File.createTempFile("feign-form", ".bin");
+      try {
+        writeTo(target, output);
+        assertThat(Files.readAllBytes(target.toPath()))
+          .isEqualTo(expected.toByteArray());
+      } finally {
+        Files.deleteIfExists(target.toPath());
+      }
+    } finally {
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  @SneakyThrows
+  private static void writeTo (File file, Output output) {
+    try (val channel = FileChannel.open(file.toPath(), WRITE)) {
+      output.writeTo(channel);
+    }
+  }
+
+  @Test
+  void encodesLikeString () {
+    val texts = new String[] {
+      "plain ascii",
+      "caf" + (char) 0xE9 + " " + (char) 0x42F + (char) 0x20AC,
+      "emoji " + new String(Character.toChars(0x1F600)) + " end",
+      "lone " + (char) 0xD83D + " and " + (char) 0xDE00,
+      repeat("long " + (char) 0x44F, 1000)
+    };
+    val charsets = new String[] { "UTF-8", "ISO-8859-1", "US-ASCII", "UTF-16", "windows-1251", "Shift_JIS" };
+
+    for (val charsetName : charsets) {
+      val charset = Charset.forName(charsetName);
+      for (val text : texts) {
+        val expected = text.getBytes(charset);
+
+        assertThat(new Output(charset).write(text).toByteArray())
+          .as("%s in %s", text, charset)
+          .isEqualTo(expected);
+        assertThat(Output.sizing(charset).write(text).size())
+          .as("size of %s in %s", text, charset)
+          .isEqualTo(expected.length);
+      }
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  void streamingBoundaryCheck () {
+    val content = new byte[100 * 1024];
+    Arrays.fill(content, (byte) '-');
+    System.arraycopy("--boundary".getBytes(UTF_8), 0, content, content.length - 20, 10);
+
+    val file = File.createTempFile("feign-form", ".bin");
+    try {
+      Files.write(file.toPath(), content);
+
+      val output = new Output(UTF_8, true);
+      output.checkBoundary("boundary");
+
+      // the streaming content is checked before anything is sent
+      assertThatThrownBy(() -> output.write(file))
+        .isInstanceOf(BoundaryCollisionException.class);
+      assertThatThrownBy(() -> output.write(() -> new ByteArrayInputStream(content), content.length))
+        .isInstanceOf(BoundaryCollisionException.class);
+
+      val clean = new Output(UTF_8, true);
+      clean.checkBoundary("other-boundary");
+      clean.write(file);
+      val sent = new ByteArrayOutputStream();
+      clean.writeTo(sent);
+      assertThat(sent.toByteArray())
+        .isEqualTo(content);
+    } finally {
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  @Test
+  void largeArraysAreReferenced () {
+    val large = new byte[4096];
+    val output = new Output(UTF_8).write(large);
+
+    large[0] = 1;
+
+    assertThat(output.toByteArray()[0])
+      .isEqualTo((byte) 1);
+  }
+
+  @Test
+  @SneakyThrows
+  void spilling () {
+    val large = new byte[2048];
+    Arrays.fill(large, (byte) 'x');
+
+    val output = new Output(UTF_8, true);
+    output.setSpillThreshold(100);
+    val expected = new ByteArrayOutputStream();
+    for (int index = 0; index < 50; index++) {
+      val text = "part " + index + ";";
+      output.write(text);
+      expected.write(text.getBytes(UTF_8));
+      if (index % 10 == 0) {
+        output.write(large);
+        expected.write(large);
+      }
+    }
+    output.asStream().write(large);
+    expected.write(large);
+
+    assertThat(output.getBufferedSize())
+      .isLessThan(100 + large.length);
+    assertThat(output.size())
+      .isEqualTo(expected.size());
+    assertThat(output.toByteArray())
+      .isEqualTo(expected.toByteArray());
+
+    val stream = new ByteArrayOutputStream();
+    output.writeTo(stream);
+    assertThat(stream.toByteArray())
+      .isEqualTo(expected.toByteArray());
+
+    output.close();
+    assertThat(output.toByteArray())
+      .as("the streaming output is not released on closing")
+      .isEqualTo(expected.toByteArray());
+
+    output.release();
+    assertThatThrownBy(output::toByteArray)
+      .isInstanceOf(ClosedChannelException.class);
+  }
+
+  @Test
+  @SneakyThrows
+  void contentSources () {
+    val content = new byte[100 * 1024];
+    Arrays.fill(content, (byte) 'c');
+    val opened = new AtomicInteger();
+    ContentSource source = () -> {
+      opened.incrementAndGet();
+      return new ByteArrayInputStream(content);
+    };
+
+    val output = new Output(UTF_8, true)
+        .write("head")
+        .write(source, content.length)
+        .write("tail");
+    assertThat(opened)
+      .hasValue(0);
+
+    val expected = new ByteArrayOutputStream();
+    expected.write("head".getBytes(UTF_8));
+    expected.write(content);
+    expected.write("tail".getBytes(UTF_8));
+
+    for (int attempt = 0; attempt < 2; attempt++) {
+      val stream = new ByteArrayOutputStream();
+      output.writeTo(stream);
+      assertThat(stream.toByteArray())
+        .isEqualTo(expected.toByteArray());
+    }
+    assertThat(output.toByteArray())
+      .isEqualTo(expected.toByteArray());
+    assertThat(opened)
+      .hasValue(3);
+
+    val truncated = new Output(UTF_8).write(source, content.length + 1);
+    assertThatThrownBy(truncated::toByteArray)
+      .isInstanceOf(EOFException.class);
+
+    val checked = new Output(UTF_8, true);
+    checked.checkBoundary("boundary");
+    assertThatThrownBy(() -> checked.write(() -> new ByteArrayInputStream("a--boundary".getBytes(UTF_8)), 11))
+      .isInstanceOf(BoundaryCollisionException.class);
+
+    val oneShot = new ContentSource() {
+
+      @Override
+      public InputStream getInputStream () {
+        return new ByteArrayInputStream(content);
+      }
+
+      @Override
+      public boolean isRepeatable () {
+        return false;
+      }
+    };
+    assertThatThrownBy(() -> checked.write(oneShot, content.length))
+      .isInstanceOf(EncodeException.class)
+      .hasMessageContaining("one-shot");
+    assertThat(new Output(UTF_8, true).write(oneShot, content.length).size())
+      .isEqualTo(content.length);
+  }
+
+  @Test
+  void sizing () {
+    val output = Output.sizing(UTF_8)
+        .write("ключ 😀")
+        .write(new byte[10]);
+
+    assertThat(output.size())
+      .isEqualTo("ключ 😀".getBytes(UTF_8).length + 10);
+  }
+
+  @Test
+  @SneakyThrows
+  void presizeIsLimited () {
+    val budget = new MemoryBudget(64 * 1024 * 1024, FAIL);
+    try (val output = new Output(UTF_8, (BufferPool) null)) {
+      output.setMemoryBudget(budget);
+      output.presize(16 * 1024 * 1024);
+      assertThat(budget.getUsedBytes())
+        .isEqualTo(1024 * 1024);
+    }
+
+    try (val output = new Output(UTF_8, (BufferPool) null)) {
+      output.setSpillThreshold(4096);
+      output.setMemoryBudget(budget);
+      output.presize(16 * 1024 * 1024);
+      assertThat(budget.getUsedBytes())
+        .isEqualTo(4096);
+    }
+
+    val small = new MemoryBudget(64 * 1024, FAIL);
+    try (val output = new Output(UTF_8, (BufferPool) null)) {
+      output.setMemoryBudget(small);
+      output.presize(1024 * 1024);
+      assertThat(small.getUsedBytes())
+        .isZero();
+      assertThat(output.write("text").toByteArray())
+        .asString(UTF_8)
+        .isEqualTo("text");
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  void capacityIsReserved () {
+    val budget = new MemoryBudget(1500, FAIL);
+    try (val output = new Output(UTF_8, (BufferPool) null)) {
+      output.setMemoryBudget(budget);
+      output.write(new byte[600]);
+      assertThat(budget.getUsedBytes())
+        .isEqualTo(1024);
+
+      // 1200 bytes fit into the budget, but the grown buffer doesn't
+      assertThatThrownBy(() -> output.write(new byte[600]))
+        .isInstanceOf(MemoryBudgetExceededException.class);
+    }
+    assertThat(budget.getUsedBytes())
+      .isZero();
+  }
+
+  private static String repeat (String text, int times) {
+    val builder = new StringBuilder();
+    for (int index = 0; index < times; index++) {
+      builder.append(text);
+    }
+    return builder.toString();
+  }
+}
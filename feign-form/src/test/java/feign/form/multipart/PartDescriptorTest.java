@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class PartDescriptorTest {
+
+  @Test
+  void formData () {
+    val descriptor = parse(
+        "content-DISPOSITION: Form-Data; NAME=\"the \\\"field\\\"\"; filename*=UTF-8''x.txt;filename=файл.txt\r\n" +
+        "X-Other: value\r\n" +
+        "Content-Type :  text/plain; charset=UTF-8  \r\n"
+    );
+
+    assertThat(descriptor.isFormData())
+        .isTrue();
+    assertThat(descriptor.getName())
+        .isEqualTo("the \"field\"");
+    assertThat(descriptor.getFilename())
+        .isEqualTo("файл.txt");
+    assertThat(descriptor.getContentType())
+        .isEqualTo("text/plain; charset=UTF-8");
+  }
+
+  @Test
+  void foldedAndQuotedValues () {
+    val descriptor = parse(
+        "Content-Disposition: form-data;\n" +
+        "\tname='single quoted';\n" +
+        "  filename=\"a;b=c.txt\""
+    );
+
+    assertThat(descriptor.isFormData())
+        .isTrue();
+    assertThat(descriptor.getName())
+        .isEqualTo("single quoted");
+    assertThat(descriptor.getFilename())
+        .isEqualTo("a;b=c.txt");
+    assertThat(descriptor.getContentType())
+        .isNull();
+  }
+
+  @Test
+  void notFormData () {
+    assertThat(parse("Content-Disposition: attachment; name=file\r\n").isFormData())
+        .isFalse();
+    assertThat(parse("Content-Type: text/plain\r\n").isFormData())
+        .isFalse();
+    assertThat(parse("").getName())
+        .isNull();
+  }
+
+  private static PartDescriptor parse (String headers) {
+    val bytes = headers.getBytes(UTF_8);
+    return PartDescriptor.parse(bytes, bytes.length, UTF_8);
+  }
+}
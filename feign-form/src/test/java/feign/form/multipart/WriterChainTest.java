@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.multipart;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import feign.codec.EncodeException;
+
+class WriterChainTest {
+
+  @Test
+  void cachesClassDispatch () {
+    val chain = new WriterChain();
+    val counter = new CountingWriter();
+    chain.addLast(counter);
+    chain.addLast(new SingleParameterWriter());
+
+    assertThat(chain.find("one"))
+      .isInstanceOf(SingleParameterWriter.class);
+    assertThat(chain.find("two"))
+      .isInstanceOf(SingleParameterWriter.class);
+    assertThat(counter.probes.get())
+      .isEqualTo(1);
+  }
+
+  @Test
+  void probesCollections () {
+    val chain = new WriterChain();
+    chain.addLast(new ManyParametersWriter());
+
+    assertThat(chain.find(asList("one", "two")))
+      .isInstanceOf(ManyParametersWriter.class);
+    assertThat(chain.find(asList(new Object())))
+      .isNull();
+  }
+
+  @Test
+  void clearsCacheOnModification () {
+    val chain = new WriterChain();
+    chain.addLast(new SingleParameterWriter());
+
+    assertThat(chain.find(new byte[0]))
+      .isNull();
+
+    chain.addFirst(new ByteArrayWriter());
+
+    assertThat(chain.find(new byte[0]))
+      .isInstanceOf(ByteArrayWriter.class);
+  }
+
+  private static final class CountingWriter extends AbstractWriter {
+
+    private final AtomicInteger probes = new AtomicInteger();
+
+    @Override
+    public boolean isApplicable (Object value) {
+      probes.incrementAndGet();
+      return false;
+    }
+
+    @Override
+    public boolean isCacheable (Class<?> type) {
+      return true;
+    }
+
+    @Override
+    protected void write (Output output, String key, Object value) throws EncodeException {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
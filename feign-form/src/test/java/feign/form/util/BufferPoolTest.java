@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class BufferPoolTest {
+
+  @Test
+  void reusesReleasedArrays () {
+    val pool = new BufferPool(1024 * 1024);
+
+    val first = pool.acquire(1500);
+    assertThat(first)
+      .hasSize(2048);
+
+    pool.release(first);
+    assertThat(pool.getRetainedBytes())
+      .isEqualTo(2048);
+
+    assertThat(pool.acquire(2000))
+      .isSameAs(first);
+    assertThat(pool.getRetainedBytes())
+      .isZero();
+  }
+
+  @Test
+  void boundedRetainedMemory () {
+    val pool = new BufferPool(4096);
+
+    pool.release(pool.acquire(4096));
+    pool.release(pool.acquire(4096));
+    pool.release(new byte[1024]);
+
+    assertThat(pool.getRetainedBytes())
+      .isEqualTo(4096);
+  }
+
+  @Test
+  void ignoresForeignArrays () {
+    val pool = new BufferPool(1024 * 1024, 4096);
+
+    pool.release(new byte[1000]);
+    pool.release(new byte[8192]);
+
+    assertThat(pool.getRetainedBytes())
+      .isZero();
+    assertThat(pool.acquire(10_000))
+      .hasSize(10_000);
+  }
+
+  @Test
+  void pooledBuilder () {
+    val pool = new BufferPool(1024 * 1024);
+    val builder = new ByteArrayBuilder(1024, pool);
+    builder.append(new byte[1024]);
+
+    val bytes = builder.toByteArray();
+    builder.release();
+
+    assertThat(pool.acquire(1024))
+      .isNotSameAs(bytes)
+      .hasSize(1024);
+  }
+
+  @Test
+  void releasedArraysAreCleared () {
+    val pool = new BufferPool(1024 * 1024);
+    val builder = new ByteArrayBuilder(1024, pool);
+    builder.append("secret".getBytes(UTF_8));
+    builder.release();
+
+    assertThat(pool.acquire(1024))
+      .containsOnly(0);
+  }
+
+  @Test
+  void viewedArraysAreNotPooled () {
+    val pool = new BufferPool(1024 * 1024);
+    val builder = new ByteArrayBuilder(1024, pool);
+    val view = builder.append("body".getBytes(UTF_8)).toByteBuffer(0);
+    builder.release();
+
+    assertThat(pool.getRetainedBytes())
+      .isZero();
+    assertThat(view.get(0))
+      .isEqualTo((byte) 'b');
+
+    val owned = new ByteArrayBuilder(1024, pool);
+    owned.append("body".getBytes(UTF_8)).toByteBuffer(0);
+    owned.recycle();
+    assertThat(pool.getRetainedBytes())
+      .isEqualTo(1024);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class FormUrlEncoderTest {
+
+  private static final String[] VALUES = {
+    "",
+    "hello world",
+    "+987654321",
+    "a-b_c.d*e~f!g'h(i)j",
+    "key=value&other=1",
+    "Привет, мир",
+    "über café",
+    "emoji 😀 end",
+    "broken " + Character.highSurrogate(0x1F600) + " surrogate",
+    "tail " + Character.lowSurrogate(0x1F600),
+    "中文字符",
+  };
+
+  @Test
+  void sameAsUrlEncoder () {
+    for (val charset : new Charset[] { UTF_8, ISO_8859_1, US_ASCII, UTF_16, Charset.forName("windows-1251") }) {
+      val encoder = FormUrlEncoder.of(charset);
+      for (val value : VALUES) {
+        val output = new ByteArrayBuilder(1);
+        encoder.encode(value, output);
+
+        assertThat(new String(output.toByteArray(), US_ASCII))
+          .as("%s in %s", value, charset)
+          .isEqualTo(urlEncode(value, charset));
+      }
+    }
+  }
+
+  @Test
+  void cachedKeys () {
+    val encoder = FormUrlEncoder.of(UTF_8);
+    val output = new ByteArrayBuilder();
+    encoder.encodeKey("ключ key", output);
+    encoder.encodeKey("ключ key", output);
+
+    val expected = urlEncode("ключ key", UTF_8);
+    assertThat(new String(output.toByteArray(), US_ASCII))
+      .isEqualTo(expected + expected);
+  }
+
+  @SneakyThrows
+  private static String urlEncode (String value, Charset charset) {
+    return URLEncoder.encode(value, charset.name());
+  }
+}
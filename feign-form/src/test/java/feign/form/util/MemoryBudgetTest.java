@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static feign.form.util.MemoryBudget.Overflow.BLOCK;
+import static feign.form.util.MemoryBudget.Overflow.FAIL;
+import static feign.form.util.MemoryBudget.Overflow.SPILL;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class MemoryBudgetTest {
+
+  @Test
+  void failsFast () {
+    val budget = new MemoryBudget(100, FAIL);
+
+    budget.reserve(60);
+    assertThat(budget.tryReserve(50))
+      .isFalse();
+    assertThatThrownBy(() -> budget.reserve(50))
+      .isInstanceOf(MemoryBudgetExceededException.class)
+      .hasFieldOrPropertyWithValue("requestedBytes", 50L)
+      .hasFieldOrPropertyWithValue("limitBytes", 100L);
+
+    budget.release(60);
+    assertThat(budget.getUsedBytes())
+      .isZero();
+  }
+
+  @Test
+  void blocksUntilTimeout () {
+    val budget = new MemoryBudget(100, BLOCK, 50, MILLISECONDS);
+    budget.reserve(100);
+
+    val start = System.nanoTime();
+    assertThatThrownBy(() -> budget.reserve(1))
+      .isInstanceOf(MemoryBudgetExceededException.class);
+    assertThat(System.nanoTime() - start)
+      .isGreaterThanOrEqualTo(MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  @SneakyThrows
+  void blocksUntilRelease () {
+    val budget = new MemoryBudget(100, BLOCK, 10, SECONDS);
+    budget.reserve(100);
+
+    val waiting = CompletableFuture.runAsync(() -> budget.reserve(40));
+    Thread.sleep(50);
+    assertThat(waiting)
+      .isNotDone();
+
+    budget.release(50);
+    waiting.get(10, SECONDS);
+    assertThat(budget.getUsedBytes())
+      .isEqualTo(90);
+  }
+
+  @Test
+  void blockRequiresTimeout () {
+    assertThatThrownBy(() -> new MemoryBudget(100, BLOCK))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void reservesOverLimitForSpill () {
+    val budget = new MemoryBudget(100, SPILL);
+    budget.reserve(80);
+    budget.reserve(80);
+
+    assertThat(budget.getUsedBytes())
+      .isEqualTo(160);
+  }
+}
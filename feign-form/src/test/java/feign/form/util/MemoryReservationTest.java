@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static feign.form.util.MemoryBudget.Overflow.BLOCK;
+import static feign.form.util.MemoryBudget.Overflow.FAIL;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class MemoryReservationTest {
+
+  @Test
+  void growsInSteps () {
+    val budget = new MemoryBudget(1024 * 1024, FAIL);
+    val reservation = new MemoryReservation(budget);
+
+    reservation.cover(100);
+    reservation.cover(200);
+    assertThat(budget.getUsedBytes())
+      .isEqualTo(16 * 1024);
+
+    assertThat(reservation.tryCover(2 * 1024 * 1024))
+      .isFalse();
+    assertThatThrownBy(() -> reservation.cover(2 * 1024 * 1024))
+      .isInstanceOf(MemoryBudgetExceededException.class);
+
+    reservation.release();
+    assertThat(budget.getUsedBytes())
+      .isZero();
+  }
+
+  @Test
+  @SneakyThrows
+  void waitingReservationIsNotHeld () {
+    val budget = new MemoryBudget(64 * 1024, BLOCK, 10, SECONDS);
+    val first = new MemoryReservation(budget);
+    val second = new MemoryReservation(budget);
+    first.cover(32 * 1024);
+    second.cover(32 * 1024);
+
+    // both grow at once, the first one gets the whole budget, when the second one gives its part up
+    val growing = CompletableFuture.runAsync(() -> first.cover(48 * 1024));
+    Thread.sleep(50);
+    assertThat(growing)
+      .isNotDone();
+
+    val failing = CompletableFuture.runAsync(() -> second.cover(64 * 1024 + 1));
+    assertThatThrownBy(() -> failing.get(10, SECONDS))
+      .hasCauseInstanceOf(MemoryBudgetExceededException.class);
+    growing.get(10, SECONDS);
+    assertThat(budget.getUsedBytes())
+      .isEqualTo(48 * 1024);
+    assertThat(second.getReserved())
+      .isZero();
+  }
+
+  @Test
+  @SneakyThrows
+  void detachedReservationIsReleasedByCloseable () {
+    val budget = new MemoryBudget(1024 * 1024, FAIL);
+    val reservation = new MemoryReservation(budget);
+    reservation.cover(20 * 1024);
+
+    val detached = reservation.detach();
+    assertThat(reservation.getReserved())
+      .isZero();
+    assertThat(budget.getUsedBytes())
+      .isEqualTo(20 * 1024);
+
+    detached.close();
+    assertThat(budget.getUsedBytes())
+      .isZero();
+  }
+}
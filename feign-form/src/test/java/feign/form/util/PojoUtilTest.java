@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static feign.form.util.PojoUtil.isUserPojo;
+import static feign.form.util.PojoUtil.toMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import feign.form.FormProperty;
+
+class PojoUtilTest {
+
+  @Test
+  void userPojo () {
+    assertThat(isUserPojo(new Child()))
+      .isTrue();
+    assertThat(isUserPojo("string"))
+      .isFalse();
+    assertThat(isUserPojo(new Child[0]))
+      .isTrue();
+    assertThat(isUserPojo(Child.class))
+      .isTrue();
+    assertThat(isUserPojo(String.class))
+      .isFalse();
+  }
+
+  @Test
+  void superclassFields () {
+    val child = new Child();
+    child.setName("Artem");
+    child.setAge(11);
+
+    assertThat(toMap(child))
+      .containsOnly(
+        entry("child_name", "Artem"),
+        entry("age", 11)
+      );
+  }
+
+  @Test
+  void skipsNullValues () {
+    val child = new Child();
+    child.setAge(11);
+
+    val map = toMap(child);
+    assertThat(map)
+      .containsOnly(entry("age", 11));
+    assertThat(map.get("child_name"))
+      .isNull();
+    assertThat(map.containsKey("child_name"))
+      .isFalse();
+  }
+
+  @Test
+  void repeatedConversion () {
+    val first = new Child();
+    first.setName("first");
+    val second = new Child();
+    second.setName("second");
+
+    assertThat(toMap(first))
+      .containsOnly(entry("child_name", "first"));
+    assertThat(toMap(second))
+      .containsOnly(entry("child_name", "second"));
+  }
+
+  public static class Parent {
+
+    @SuppressWarnings("PMD.UnusedPrivateField")
+    private static final String CONSTANT = "constant";
+
+    private Integer age;
+
+    public Integer getAge () {
+      return age;
+    }
+
+    public void setAge (Integer age) {
+      this.age = age;
+    }
+  }
+
+  public static class Child extends Parent {
+
+    @FormProperty("child_name")
+    private String name;
+
+    public void setName (String name) {
+      this.name = name;
+    }
+  }
+}
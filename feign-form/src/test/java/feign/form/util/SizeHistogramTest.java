@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package feign.form.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class SizeHistogramTest {
+
+  @Test
+  void bucketBounds () {
+    for (val size : new int[] { 0, 1, 3, 4, 5, 7, 8, 100, 1000, 1023, 1024, 65_537, Integer.MAX_VALUE }) {
+      val bucket = SizeHistogram.bucket(size);
+      assertThat(SizeHistogram.upperBound(bucket))
+        .as("size %d", size)
+        .isGreaterThanOrEqualTo(size)
+        .isLessThanOrEqualTo((int) Math.min(Integer.MAX_VALUE, size * 5L / 4 + 1));
+      if (bucket > 0) {
+        assertThat(SizeHistogram.upperBound(bucket - 1))
+          .isLessThan(size);
+      }
+    }
+  }
+
+  @Test
+  void notEnoughSamples () {
+    val histogram = new SizeHistogram();
+    histogram.record(100);
+
+    assertThat(histogram.predict())
+      .isEqualTo(-1);
+  }
+
+  @Test
+  void exactRepeatedSize () {
+    val histogram = new SizeHistogram();
+    for (int index = 0; index < 10; index++) {
+      histogram.record(1000);
+    }
+
+    assertThat(histogram.predict())
+      .isEqualTo(1000);
+  }
+
+  @Test
+  void percentileOfVaryingSizes () {
+    val histogram = new SizeHistogram();
+    for (int index = 0; index < 100; index++) {
+      histogram.record(index == 50 ? 1_000_000 : 900 + index);
+    }
+
+    assertThat(histogram.predict())
+      .isGreaterThanOrEqualTo(999)
+      .isLessThan(1_000_000);
+  }
+}